@@ -1,5 +1,6 @@
 package dev.jaoow.cotatrack.api;
 
+import dev.jaoow.cotatrack.api.indicator.IndicatorSpec;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Range;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.HistoricalQuotesRequest;
@@ -7,6 +8,7 @@ import dev.jaoow.cotatrack.api.requests.quotes.model.FxQuote;
 import dev.jaoow.cotatrack.api.requests.quotes.model.Quote;
 import dev.jaoow.cotatrack.api.requests.quotes.FxQuoteRequest;
 import dev.jaoow.cotatrack.api.requests.quotes.StockQuoteRequest;
+import dev.jaoow.cotatrack.api.util.ConcurrencyLimiter;
 import dev.jaoow.cotatrack.api.yahoo.SymbolMapper;
 import lombok.Builder;
 import lombok.Data;
@@ -14,10 +16,16 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * QuoteQuery class provides methods to fetch stock quotes based on various parameters.
@@ -27,6 +35,17 @@ import java.util.Optional;
 @Builder
 public class QuoteQuery {
 
+    /**
+     * Bounded executor shared by the queries that do not provide their own.
+     */
+    public static final Executor DEFAULT_EXECUTOR = Executors.newFixedThreadPool(
+            Integer.getInteger("cotatrack.query.enrichmentThreads", 32),
+            runnable -> {
+                Thread thread = new Thread(runnable, "quote-enrichment");
+                thread.setDaemon(true);
+                return thread;
+            });
+
     private String symbol;
     private String[] symbols;
     private LocalDate from;
@@ -37,11 +56,43 @@ public class QuoteQuery {
     @Builder.Default
     private boolean includeDividends = false;
 
+    /**
+     * Whether the dividend summary (trailing yield, growth and frequency) is computed for each quote. Unlike the
+     * dividends data, it's small enough to be requested for whole watchlists.
+     */
+    @Builder.Default
+    private boolean includeDividendSummary = false;
+
+    /**
+     * Technical indicators computed over the historical quotes of each quote.
+     */
+    private List<IndicatorSpec> indicators;
+
+    /**
+     * Whether the historical quotes are returned along with the indicators. Disable it to only get the indicators.
+     */
+    @Builder.Default
+    private boolean includeHistoricalQuotes = true;
+
+    /**
+     * Whether the historical prices are back-adjusted for the dividends and stock events published by B3.
+     */
+    @Builder.Default
+    private boolean adjustPrices = false;
+
+    /**
+     * Executor the historical and dividends requests of each quote are started on. The upstream calls are
+     * asynchronous, so no task blocks on them and the shared bounded pool is enough for large watchlists.
+     */
+    @Builder.Default
+    private Executor executor = DEFAULT_EXECUTOR;
+
     /**
      * Fetches a stock quote based on the built query parameters.
      *
      * @return the stock quote
-     * @throws IOException if an I/O error occurs
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the historical parameters can't be served
      */
     public Quote fetch() throws IOException {
         // Map the symbol to the correct format
@@ -54,7 +105,8 @@ public class QuoteQuery {
      * Fetches stock quotes for multiple symbols based on the built query parameters.
      *
      * @return a map of stock quotes
-     * @throws IOException if an I/O error occurs
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the historical parameters can't be served
      */
     public Map<String, Quote> fetchMultiple() throws IOException {
         // Map the symbols to the correct format
@@ -62,6 +114,124 @@ public class QuoteQuery {
         return fetchQuotes(String.join(",", symbols));
     }
 
+    /**
+     * Asynchronously fetches stock quotes for multiple symbols based on the built query parameters.
+     * The historical and dividends data of every quote are requested concurrently.
+     *
+     * @return a future of the stock quotes, failing with an {@link IOException} if an I/O error occurs
+     */
+    public CompletableFuture<Map<String, Quote>> fetchMultipleAsync() {
+        // Map the symbols to the correct format
+        this.symbols = SymbolMapper.mapSymbols(this.symbols);
+        try {
+            validateHistoricalRequest();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        StockQuoteRequest request = new StockQuoteRequest(String.join(",", symbols));
+        return request.getResultAsync().thenCompose(quotes -> {
+            Map<String, Quote> result = new HashMap<>();
+            List<CompletableFuture<Void>> enrichments = new ArrayList<>();
+
+            for (Quote quote : quotes) {
+                result.put(quote.getSymbol(), quote);
+                enrichments.add(enrichAsync(quote));
+            }
+
+            return CompletableFuture.allOf(enrichments.toArray(CompletableFuture[]::new)).thenApply(ignored -> result);
+        });
+    }
+
+    /**
+     * Asynchronously fetches stock quotes for multiple symbols, handing each quote over as soon as its historical
+     * and dividends data are fetched, so the quotes never have to be held together.
+     * <p>
+     * At most the given number of quotes are enriched or waiting on the consumer at a time, the next quote being
+     * enriched once the consumer is done with one, so a slow consumer holds back the enrichments instead of piling
+     * up quotes. Cancelling the returned future stops enriching and handing over the remaining quotes.
+     * </p>
+     *
+     * @param consumer    receives each quote, possibly from different threads, returning a future completed once
+     *                    it's done with the quote
+     * @param maxInFlight the maximum number of quotes enriched or handed over at a time
+     * @return a future completed once every quote was handed over, failing with an {@link IOException} if the quotes
+     * can't be fetched or with an {@link IllegalArgumentException} if the historical parameters can't be served
+     */
+    public CompletableFuture<Void> fetchEachAsync(Function<Quote, CompletableFuture<Void>> consumer, int maxInFlight) {
+        // Map the symbols to the correct format
+        this.symbols = SymbolMapper.mapSymbols(this.symbols);
+        try {
+            validateHistoricalRequest();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(maxInFlight);
+
+        StockQuoteRequest request = new StockQuoteRequest(String.join(",", symbols));
+        request.getResultAsync().thenCompose(quotes -> {
+            List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+            for (Quote quote : quotes) {
+                deliveries.add(limiter.submit(() -> deliverAsync(quote, consumer, result)));
+            }
+            return CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new));
+        }).whenComplete((ignored, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(null);
+            }
+        });
+        return result;
+    }
+
+    // Enriches a quote and hands it over, unless the fetch was cancelled meanwhile
+    private CompletableFuture<Void> deliverAsync(Quote quote, Function<Quote, CompletableFuture<Void>> consumer, CompletableFuture<Void> result) {
+        if (result.isDone()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enrichAsync(quote).thenCompose(ignored -> result.isDone() ? CompletableFuture.completedFuture(null) : consumer.apply(quote));
+    }
+
+    /**
+     * Requests the historical and dividends data of a quote, as requested by the query.
+     *
+     * @param quote the quote
+     * @return a future completed once the data is set, never failing
+     */
+    private CompletableFuture<Void> enrichAsync(Quote quote) {
+        List<CompletableFuture<Void>> enrichments = new ArrayList<>();
+        if (isIncludeHistorical()) {
+            enrichments.add(enrichAsync(quote, "historical data", () -> fetchHistoricalDataAsync(quote)));
+        }
+        if (includeDividendSummary) {
+            enrichments.add(enrichAsync(quote, "dividend summary", () -> quote.fetchDividendSummaryAsync(includeDividends)));
+        } else if (includeDividends) {
+            enrichments.add(enrichAsync(quote, "dividends data", quote::fetchDividendsDataAsync));
+        }
+        return CompletableFuture.allOf(enrichments.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Starts a request of a quote on the query executor. A failed request is logged and leaves its data unset,
+     * so it doesn't fail the other quotes.
+     *
+     * @param quote   the quote
+     * @param data    the data requested, for logging
+     * @param request starts the request
+     * @return a future completed once the request is done, never failing
+     */
+    private CompletableFuture<Void> enrichAsync(Quote quote, String data, Supplier<CompletableFuture<Void>> request) {
+        return CompletableFuture.supplyAsync(request, executor)
+                .thenCompose(Function.identity())
+                .exceptionally(e -> {
+                    log.warn("Failed to fetch the {} of {}", data, quote.getSymbol(), e);
+                    return null;
+                });
+    }
+
     /**
      * Fetches stock quotes based on the built query parameters.
      *
@@ -70,6 +240,8 @@ public class QuoteQuery {
      * @throws IOException if an I/O error occurs
      */
     private Map<String, Quote> fetchQuotes(String query) throws IOException {
+        validateHistoricalRequest();
+
         Map<String, Quote> result = new HashMap<>();
         StockQuoteRequest request = new StockQuoteRequest(query);
 
@@ -78,32 +250,67 @@ public class QuoteQuery {
             result.put(quote.getSymbol(), quote);
         }
 
-        boolean includeHistorical = from != null || to != null || interval != null || range != null;
-
-        if (includeHistorical) {
+        if (isIncludeHistorical()) {
             log.info("Fetching historical data for {} symbols", result.size());
-            for (Quote quote : result.values()) {
-                HistoricalQuotesRequest.Builder requestBuilder
-                        = HistoricalQuotesRequest.builder().symbol(quote.getSymbol());
+        }
+        if (includeDividendSummary) {
+            log.info("Fetching dividend summaries for {} symbols", result.size());
+        } else if (includeDividends) {
+            log.info("Fetching dividends data for {} symbols", result.size());
+        }
 
-                Optional.ofNullable(from).ifPresent(requestBuilder::from);
-                Optional.ofNullable(to).ifPresent(requestBuilder::to);
-                Optional.ofNullable(interval).ifPresent(requestBuilder::interval);
-                Optional.ofNullable(range).ifPresent(requestBuilder::range);
+        // Wait for all the historical and dividends requests, which run concurrently
+        List<CompletableFuture<Void>> enrichments = new ArrayList<>();
+        for (Quote quote : result.values()) {
+            enrichments.add(enrichAsync(quote));
+        }
+        CompletableFuture.allOf(enrichments.toArray(CompletableFuture[]::new)).join();
+        return result;
+    }
 
-                HistoricalQuotesRequest historicalRequest = requestBuilder.build();
-                quote.fetchHistoricalQuotes(historicalRequest);
-            }
+    private boolean isIncludeHistorical() {
+        return from != null || to != null || interval != null || range != null || hasIndicators();
+    }
+
+    private boolean hasIndicators() {
+        return indicators != null && !indicators.isEmpty();
+    }
+
+    /**
+     * Requests the historical quotes of a quote, along with the indicators if any were requested.
+     *
+     * @param quote the quote
+     * @return a future completed once the historical data is set
+     */
+    private CompletableFuture<Void> fetchHistoricalDataAsync(Quote quote) {
+        HistoricalQuotesRequest historicalRequest = buildHistoricalRequest(quote.getSymbol());
+        if (hasIndicators()) {
+            return quote.fetchIndicatorsAsync(historicalRequest, indicators, includeHistoricalQuotes);
         }
+        return quote.fetchHistoricalQuotesAsync(historicalRequest);
+    }
 
-        if (includeDividends) {
-            log.info("Fetching dividends data for {} symbols", result.size());
-            for (Quote quote : result.values()) {
-                quote.fetchDividendsData();
-            }
+    /**
+     * Rejects an invalid historical request before anything is fetched.
+     *
+     * @throws IllegalArgumentException if the historical parameters can't be served
+     */
+    private void validateHistoricalRequest() {
+        if (isIncludeHistorical()) {
+            buildHistoricalRequest(null).validate();
         }
+    }
 
-        return result;
+    private HistoricalQuotesRequest buildHistoricalRequest(String symbol) {
+        HistoricalQuotesRequest.Builder requestBuilder = HistoricalQuotesRequest.builder().symbol(symbol);
+
+        Optional.ofNullable(from).ifPresent(requestBuilder::from);
+        Optional.ofNullable(to).ifPresent(requestBuilder::to);
+        Optional.ofNullable(interval).ifPresent(requestBuilder::interval);
+        Optional.ofNullable(range).ifPresent(requestBuilder::range);
+        requestBuilder.adjusted(adjustPrices);
+
+        return requestBuilder.build();
     }
 
     /**
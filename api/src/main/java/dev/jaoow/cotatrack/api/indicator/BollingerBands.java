@@ -0,0 +1,58 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.util.List;
+
+/**
+ * Simple moving average of the closes, with bands a number of standard deviations above and below it.
+ * The sum and the sum of squares are kept over a ring buffer.
+ */
+public class BollingerBands implements Indicator {
+
+    private final double[] window;
+    private final double multiplier;
+    private int count;
+    private int next;
+    private double sum;
+    private double sumOfSquares;
+
+    public BollingerBands(int period, double multiplier) {
+        this.window = new double[period];
+        this.multiplier = multiplier;
+    }
+
+    @Override
+    public List<String> getOutputs() {
+        return List.of("middle", "upper", "lower");
+    }
+
+    @Override
+    public void update(HistoricalSeries series, int index, double[] values) {
+        double close = series.getClose(index);
+        values[0] = values[1] = values[2] = Double.NaN;
+        if (Double.isNaN(close)) {
+            return;
+        }
+
+        if (count == window.length) {
+            double removed = window[next];
+            sum -= removed;
+            sumOfSquares -= removed * removed;
+        } else {
+            count++;
+        }
+        window[next] = close;
+        sum += close;
+        sumOfSquares += close * close;
+        next = (next + 1) % window.length;
+
+        if (count == window.length) {
+            double mean = sum / count;
+            double deviation = Math.sqrt(Math.max(sumOfSquares / count - mean * mean, 0));
+            values[0] = mean;
+            values[1] = mean + multiplier * deviation;
+            values[2] = mean - multiplier * deviation;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.util.List;
+
+/**
+ * Exponentially weighted average of the closes, seeded with the simple average of the first period.
+ */
+public class ExponentialMovingAverage implements Indicator {
+
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double average;
+
+    public ExponentialMovingAverage(int period) {
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    public List<String> getOutputs() {
+        return List.of("value");
+    }
+
+    @Override
+    public void update(HistoricalSeries series, int index, double[] values) {
+        double close = series.getClose(index);
+        if (Double.isNaN(close)) {
+            values[0] = Double.NaN;
+            return;
+        }
+
+        if (count < period) {
+            average += close;
+            count++;
+            if (count == period) {
+                average /= period;
+            }
+        } else {
+            average += alpha * (close - average);
+        }
+
+        values[0] = count == period ? average : Double.NaN;
+    }
+}
@@ -0,0 +1,28 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.util.List;
+
+/**
+ * Technical indicator fed one bar at a time. Each update runs in constant time, whatever the period,
+ * so a series is computed in a single pass.
+ */
+public interface Indicator {
+
+    /**
+     * Gets the names of the values computed for each bar, e.g. the middle, upper and lower bands.
+     *
+     * @return the names of the values
+     */
+    List<String> getOutputs();
+
+    /**
+     * Feeds the next bar. Bars must be fed in timestamp order.
+     *
+     * @param series the series of the bar
+     * @param index  the index of the bar
+     * @param values receives one value per output, {@link Double#NaN} while there aren't enough bars
+     */
+    void update(HistoricalSeries series, int index, double[] values);
+}
@@ -0,0 +1,133 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import dev.jaoow.cotatrack.api.market.ExchangeCalendar;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values of technical indicators, one column per indicator value, aligned with the timestamps of the bars.
+ * Values are {@link Double#NaN} while an indicator doesn't have enough bars, and serialized as null.
+ */
+@Getter
+@JsonSerialize(using = IndicatorSeries.Serializer.class)
+public final class IndicatorSeries {
+
+    private final long[] timestamps;
+    private final Map<String, double[]> values;
+
+    private IndicatorSeries(long[] timestamps, Map<String, double[]> values) {
+        this.timestamps = timestamps;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Computes indicators in a single pass over the bars.
+     * Values of indicators with several outputs are named after the indicator and the output, e.g. bb:20:2.upper.
+     *
+     * @param series     the bars
+     * @param indicators the indicators to compute
+     * @param symbol     the symbol of the bars, to find the time zone of its sessions
+     * @return the values of the indicators
+     */
+    public static IndicatorSeries compute(HistoricalSeries series, List<IndicatorSpec> indicators, String symbol) {
+        return compute(series, indicators, symbol, 0);
+    }
+
+    /**
+     * Computes indicators in a single pass over the bars, keeping only the values from the given bar on.
+     * The bars before it warm the indicators up, see {@link IndicatorSpec#getWarmUpBars()}.
+     *
+     * @param series     the bars, including the warm-up bars
+     * @param indicators the indicators to compute
+     * @param symbol     the symbol of the bars, to find the time zone of its sessions
+     * @param fromIndex  the index of the first bar the values are kept for
+     * @return the values of the indicators
+     */
+    public static IndicatorSeries compute(HistoricalSeries series, List<IndicatorSpec> indicators, String symbol, int fromIndex) {
+        ExchangeCalendar calendar = ExchangeCalendar.forSymbol(symbol);
+        ZoneId zone = calendar != null ? calendar.getZone() : ZoneOffset.UTC;
+
+        List<Indicator> instances = new ArrayList<>();
+        List<double[][]> columns = new ArrayList<>();
+        Map<String, double[]> values = new LinkedHashMap<>();
+        int maxOutputs = 0;
+        for (IndicatorSpec spec : indicators) {
+            Indicator indicator = spec.create(zone);
+            List<String> outputs = indicator.getOutputs();
+
+            double[][] indicatorColumns = new double[outputs.size()][];
+            for (int i = 0; i < outputs.size(); i++) {
+                indicatorColumns[i] = new double[series.size() - fromIndex];
+                values.put(outputs.size() == 1 ? spec.getName() : spec.getName() + "." + outputs.get(i), indicatorColumns[i]);
+            }
+
+            instances.add(indicator);
+            columns.add(indicatorColumns);
+            maxOutputs = Math.max(maxOutputs, outputs.size());
+        }
+
+        long[] timestamps = new long[series.size() - fromIndex];
+        double[] buffer = new double[maxOutputs];
+        for (int index = 0; index < series.size(); index++) {
+            int row = index - fromIndex;
+            if (row >= 0) {
+                timestamps[row] = series.getTimestamp(index);
+            }
+            for (int i = 0; i < instances.size(); i++) {
+                instances.get(i).update(series, index, buffer);
+                if (row < 0) {
+                    continue;
+                }
+                double[][] indicatorColumns = columns.get(i);
+                for (int output = 0; output < indicatorColumns.length; output++) {
+                    indicatorColumns[output][row] = buffer[output];
+                }
+            }
+        }
+
+        return new IndicatorSeries(timestamps, values);
+    }
+
+    /**
+     * Writes the columns without boxing, with {@link Double#NaN} written as null.
+     */
+    public static final class Serializer extends JsonSerializer<IndicatorSeries> {
+
+        @Override
+        public void serialize(IndicatorSeries series, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+
+            generator.writeFieldName("timestamps");
+            generator.writeArray(series.timestamps, 0, series.timestamps.length);
+
+            generator.writeObjectFieldStart("values");
+            for (Map.Entry<String, double[]> column : series.values.entrySet()) {
+                generator.writeArrayFieldStart(column.getKey());
+                for (double value : column.getValue()) {
+                    if (Double.isNaN(value)) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(value);
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * Indicator and its parameters, written as {@code <tag>[:<period>[:<multiplier>]]}, e.g. {@code sma:50},
+ * {@code rsi} or {@code bb:20:2}.
+ *
+ * @param type       the indicator
+ * @param period     the number of bars of the window, unused by VWAP
+ * @param multiplier the number of standard deviations of the Bollinger bands
+ */
+public record IndicatorSpec(IndicatorType type, int period, double multiplier) {
+
+    private static final double DEFAULT_MULTIPLIER = 2;
+    private static final int MAX_PERIOD = 1000;
+    // Periods of bars fed to the recursive indicators before the first requested bar, see getWarmUpBars
+    private static final int RECURSIVE_WARM_UP_PERIODS = 4;
+
+    /**
+     * Parses an indicator spec.
+     *
+     * @param spec the spec, e.g. sma:50
+     * @return the parsed spec
+     * @throws IllegalArgumentException if the spec is invalid
+     */
+    public static IndicatorSpec parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        if (parts.length > 3) {
+            throw new IllegalArgumentException("Invalid indicator: " + spec);
+        }
+
+        IndicatorType type;
+        try {
+            type = IndicatorType.fromTag(parts[0]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid indicator: " + spec + ". Valid indicators are: " + IndicatorType.getValidTags());
+        }
+
+        try {
+            int period = parts.length > 1 ? Integer.parseInt(parts[1]) : type.getDefaultPeriod();
+            double multiplier = parts.length > 2 ? Double.parseDouble(parts[2]) : DEFAULT_MULTIPLIER;
+            if (type != IndicatorType.VWAP && (period < 1 || period > MAX_PERIOD)) {
+                throw new IllegalArgumentException("Invalid period of indicator " + spec + ". It should be between 1 and " + MAX_PERIOD);
+            }
+            if (!Double.isFinite(multiplier) || multiplier <= 0) {
+                throw new IllegalArgumentException("Invalid multiplier of indicator " + spec + ". It should be a positive number");
+            }
+            return new IndicatorSpec(type, period, multiplier);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid indicator: " + spec);
+        }
+    }
+
+    /**
+     * Creates a new instance of the indicator.
+     *
+     * @param zone the time zone of the exchange, which sessions are based on
+     * @return the indicator
+     */
+    public Indicator create(ZoneId zone) {
+        return switch (type) {
+            case SMA -> new SimpleMovingAverage(period);
+            case EMA -> new ExponentialMovingAverage(period);
+            case RSI -> new RelativeStrengthIndex(period);
+            case BOLLINGER -> new BollingerBands(period, multiplier);
+            case VWAP -> new VolumeWeightedAveragePrice(zone);
+        };
+    }
+
+    /**
+     * Gets the number of bars fed before the first requested bar, so the indicator has a value from that bar on.
+     * <p>
+     * The SMA and the Bollinger bands only depend on the last {@code period} bars, so their values don't depend on
+     * where the series starts. The EMA and the RSI are recursive, each value keeping a decaying weight of all the
+     * earlier bars, so they're fed {@value #RECURSIVE_WARM_UP_PERIODS} periods of bars. The weight left on the bars
+     * before the warm-up is then about {@code e^-6}, i.e. 0.25%, for the EMA and below {@code e^-3}, i.e. 5%, for the
+     * RSI, with Wilder's slower smoothing, so their values may still differ slightly from the ones of a longer series.
+     * VWAP starts over every session, so it needs none.
+     * </p>
+     *
+     * @return the number of bars
+     */
+    public int getWarmUpBars() {
+        return switch (type) {
+            case VWAP -> 0;
+            case EMA, RSI -> period * RECURSIVE_WARM_UP_PERIODS;
+            case SMA, BOLLINGER -> period;
+        };
+    }
+
+    /**
+     * Gets the name of the indicator in the results, e.g. sma:50.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return switch (type) {
+            case VWAP -> type.getTag();
+            case BOLLINGER -> type.getTag() + ":" + period + ":" + formatMultiplier();
+            default -> type.getTag() + ":" + period;
+        };
+    }
+
+    private String formatMultiplier() {
+        return multiplier == Math.rint(multiplier) ? String.valueOf((long) multiplier) : String.valueOf(multiplier);
+    }
+}
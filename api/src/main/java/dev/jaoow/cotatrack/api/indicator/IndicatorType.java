@@ -0,0 +1,38 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Supported technical indicators, with the tag used to request them and their default period.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum IndicatorType {
+
+    SMA("sma", 20),
+    EMA("ema", 20),
+    RSI("rsi", 14),
+    BOLLINGER("bb", 20),
+    VWAP("vwap", 0);
+
+    private final String tag;
+    private final int defaultPeriod;
+
+    public static IndicatorType fromTag(String tag) {
+        for (IndicatorType type : values()) {
+            if (type.getTag().equals(tag)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tag: " + tag);
+    }
+
+    public static String getValidTags() {
+        StringBuilder validTags = new StringBuilder();
+        for (IndicatorType type : values()) {
+            validTags.append(type.getTag()).append(", ");
+        }
+        return validTags.substring(0, validTags.length() - 2); // Remove the trailing comma and space
+    }
+}
@@ -0,0 +1,64 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.util.List;
+
+/**
+ * Relative strength index, with Wilder's smoothing of the average gains and losses between closes.
+ */
+public class RelativeStrengthIndex implements Indicator {
+
+    private final int period;
+    private int changes;
+    private double previousClose = Double.NaN;
+    private double averageGain;
+    private double averageLoss;
+
+    public RelativeStrengthIndex(int period) {
+        this.period = period;
+    }
+
+    @Override
+    public List<String> getOutputs() {
+        return List.of("value");
+    }
+
+    @Override
+    public void update(HistoricalSeries series, int index, double[] values) {
+        double close = series.getClose(index);
+        values[0] = Double.NaN;
+        if (Double.isNaN(close)) {
+            return;
+        }
+
+        if (Double.isNaN(previousClose)) {
+            previousClose = close;
+            return;
+        }
+
+        double change = close - previousClose;
+        double gain = Math.max(change, 0);
+        double loss = Math.max(-change, 0);
+        previousClose = close;
+
+        if (changes < period) {
+            // The first averages are simple averages
+            averageGain += gain / period;
+            averageLoss += loss / period;
+            changes++;
+            if (changes < period) {
+                return;
+            }
+        } else {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+
+        if (averageLoss == 0) {
+            values[0] = averageGain == 0 ? 50 : 100;
+        } else {
+            values[0] = 100 - 100 / (1 + averageGain / averageLoss);
+        }
+    }
+}
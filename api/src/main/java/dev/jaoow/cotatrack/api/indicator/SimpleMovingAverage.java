@@ -0,0 +1,45 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.util.List;
+
+/**
+ * Average of the closes over the period, kept as a running sum over a ring buffer.
+ */
+public class SimpleMovingAverage implements Indicator {
+
+    private final double[] window;
+    private int count;
+    private int next;
+    private double sum;
+
+    public SimpleMovingAverage(int period) {
+        this.window = new double[period];
+    }
+
+    @Override
+    public List<String> getOutputs() {
+        return List.of("value");
+    }
+
+    @Override
+    public void update(HistoricalSeries series, int index, double[] values) {
+        double close = series.getClose(index);
+        if (Double.isNaN(close)) {
+            values[0] = Double.NaN;
+            return;
+        }
+
+        if (count == window.length) {
+            sum -= window[next];
+        } else {
+            count++;
+        }
+        window[next] = close;
+        sum += close;
+        next = (next + 1) % window.length;
+
+        values[0] = count == window.length ? sum / window.length : Double.NaN;
+    }
+}
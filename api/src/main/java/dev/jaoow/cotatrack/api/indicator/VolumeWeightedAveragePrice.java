@@ -0,0 +1,51 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Average of the typical price (high, low and close) weighted by volume, anchored to each session:
+ * it starts over on every new day, in the time zone of the exchange.
+ */
+public class VolumeWeightedAveragePrice implements Indicator {
+
+    private static final long DAY = 24 * 60 * 60;
+
+    private final ZoneId zone;
+    private long session = Long.MIN_VALUE;
+    private double totalPriceVolume;
+    private double totalVolume;
+
+    public VolumeWeightedAveragePrice(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    @Override
+    public List<String> getOutputs() {
+        return List.of("value");
+    }
+
+    @Override
+    public void update(HistoricalSeries series, int index, double[] values) {
+        long timestamp = series.getTimestamp(index);
+        long offset = zone.getRules().getOffset(Instant.ofEpochSecond(timestamp)).getTotalSeconds();
+        long day = Math.floorDiv(timestamp + offset, DAY);
+        if (day != session) {
+            session = day;
+            totalPriceVolume = 0;
+            totalVolume = 0;
+        }
+
+        double typicalPrice = (series.getHigh(index) + series.getLow(index) + series.getClose(index)) / 3;
+        long volume = series.getVolume(index);
+        if (!Double.isNaN(typicalPrice) && volume != HistoricalSeries.MISSING_VOLUME) {
+            totalPriceVolume += typicalPrice * volume;
+            totalVolume += volume;
+        }
+
+        values[0] = totalVolume > 0 ? totalPriceVolume / totalVolume : Double.NaN;
+    }
+}
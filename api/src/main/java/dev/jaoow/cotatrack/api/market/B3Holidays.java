@@ -0,0 +1,103 @@
+package dev.jaoow.cotatrack.api.market;
+
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Days B3 has no trading session, computed for any year: the national holidays, the movable feasts around Easter
+ * and the last two days of the year.
+ * <p>
+ * Ash Wednesday isn't included, as the session only opens later that day. The São Paulo municipal holidays
+ * aren't included either, as B3 trades on them since 2022.
+ * </p>
+ */
+@UtilityClass
+public class B3Holidays {
+
+    private static final List<MonthDay> FIXED_HOLIDAYS = List.of(
+            MonthDay.of(1, 1),   // Confraternização Universal
+            MonthDay.of(4, 21),  // Tiradentes
+            MonthDay.of(5, 1),   // Dia do Trabalho
+            MonthDay.of(9, 7),   // Independência
+            MonthDay.of(10, 12), // Nossa Senhora Aparecida
+            MonthDay.of(11, 2),  // Finados
+            MonthDay.of(11, 15), // Proclamação da República
+            MonthDay.of(12, 24), // Véspera de Natal
+            MonthDay.of(12, 25), // Natal
+            MonthDay.of(12, 31)  // Último dia do ano
+    );
+
+    // Dia Nacional de Zumbi e da Consciência Negra, a national holiday since 2024
+    private static final MonthDay BLACK_CONSCIOUSNESS_DAY = MonthDay.of(11, 20);
+    private static final int BLACK_CONSCIOUSNESS_DAY_SINCE = 2024;
+
+    private static final Map<Integer, Set<LocalDate>> holidaysByYear = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if B3 has no session on the given date because of a holiday.
+     *
+     * @param date the date
+     * @return true if the date is a holiday
+     */
+    public static boolean isHoliday(LocalDate date) {
+        return getHolidays(date.getYear()).contains(date);
+    }
+
+    /**
+     * Gets the holidays of a year.
+     *
+     * @param year the year
+     * @return the holidays, including the ones on weekends
+     */
+    public static Set<LocalDate> getHolidays(int year) {
+        return holidaysByYear.computeIfAbsent(year, B3Holidays::computeHolidays);
+    }
+
+    private static Set<LocalDate> computeHolidays(int year) {
+        Set<LocalDate> holidays = new HashSet<>();
+        for (MonthDay holiday : FIXED_HOLIDAYS) {
+            holidays.add(holiday.atYear(year));
+        }
+        if (year >= BLACK_CONSCIOUSNESS_DAY_SINCE) {
+            holidays.add(BLACK_CONSCIOUSNESS_DAY.atYear(year));
+        }
+
+        LocalDate easter = getEaster(year);
+        holidays.add(easter.minusDays(48)); // Carnival Monday
+        holidays.add(easter.minusDays(47)); // Carnival Tuesday
+        holidays.add(easter.minusDays(2));  // Good Friday
+        holidays.add(easter.plusDays(60));  // Corpus Christi
+        return Set.copyOf(holidays);
+    }
+
+    /**
+     * Computes the date of Easter Sunday in the Gregorian calendar, with the anonymous Gregorian algorithm.
+     *
+     * @param year the year
+     * @return the Easter Sunday
+     */
+    static LocalDate getEaster(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
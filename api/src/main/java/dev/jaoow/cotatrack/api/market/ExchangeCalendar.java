@@ -0,0 +1,203 @@
+package dev.jaoow.cotatrack.api.market;
+
+import dev.jaoow.cotatrack.api.tradingview.StockExchange;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Trading calendar of a stock exchange: its time zone, regular session hours and holidays.
+ * <p>
+ * The B3 holidays are built in, see {@link B3Holidays}. More holidays can be configured per exchange through the
+ * {@code cotatrack.calendar.<EXCHANGE>.holidays} system property, as a comma-separated list of ISO dates,
+ * e.g. {@code -Dcotatrack.calendar.NYQ.holidays=2026-11-26,2026-12-25}.
+ * </p>
+ */
+@Slf4j
+@Getter
+public class ExchangeCalendar {
+
+    // How many days ahead the next session is looked for, which is more than any sequence of holidays
+    private static final int MAX_DAYS_AHEAD = 30;
+
+    private static final Map<StockExchange, ExchangeCalendar> calendars = new EnumMap<>(StockExchange.class);
+
+    // Yahoo Finance symbol suffixes of the exchanges, e.g. PETR4.SA
+    private static final Map<String, StockExchange> suffixes = new HashMap<>();
+
+    static {
+        for (StockExchange exchange : StockExchange.values()) {
+            if (!exchange.getSymbolSuffix().isEmpty()) {
+                suffixes.put(exchange.getSymbolSuffix().substring(1), exchange);
+            }
+        }
+
+        register(StockExchange.NYQ, "America/New_York", "09:30", "16:00");
+        register(StockExchange.NMS, "America/New_York", "09:30", "16:00");
+        register(StockExchange.ASE, "America/New_York", "09:30", "16:00");
+        register(StockExchange.SAO, "America/Sao_Paulo", "10:00", "18:00", B3Holidays::isHoliday);
+        register(StockExchange.LSE, "Europe/London", "08:00", "16:30");
+        register(StockExchange.TYO, "Asia/Tokyo", "09:00", "15:30");
+        register(StockExchange.HKG, "Asia/Hong_Kong", "09:30", "16:00");
+        register(StockExchange.SHA, "Asia/Shanghai", "09:30", "15:00");
+        register(StockExchange.SHZ, "Asia/Shanghai", "09:30", "15:00");
+        register(StockExchange.TOR, "America/Toronto", "09:30", "16:00");
+        register(StockExchange.FRA, "Europe/Berlin", "08:00", "22:00");
+        register(StockExchange.JSE, "Africa/Johannesburg", "09:00", "17:00");
+        register(StockExchange.XETRA, "Europe/Berlin", "09:00", "17:30");
+    }
+
+    private final ZoneId zone;
+    private final LocalTime open;
+    private final LocalTime close;
+    private final Set<LocalDate> holidays;
+    // Holidays computed by rule, on top of the listed ones
+    private final Predicate<LocalDate> builtInHolidays;
+
+    public ExchangeCalendar(ZoneId zone, LocalTime open, LocalTime close, Set<LocalDate> holidays) {
+        this(zone, open, close, holidays, date -> false);
+    }
+
+    public ExchangeCalendar(ZoneId zone, LocalTime open, LocalTime close, Set<LocalDate> holidays, Predicate<LocalDate> builtInHolidays) {
+        this.zone = zone;
+        this.open = open;
+        this.close = close;
+        this.holidays = Set.copyOf(holidays);
+        this.builtInHolidays = builtInHolidays;
+    }
+
+    private static void register(StockExchange exchange, String zone, String open, String close) {
+        register(exchange, zone, open, close, date -> false);
+    }
+
+    private static void register(StockExchange exchange, String zone, String open, String close, Predicate<LocalDate> builtInHolidays) {
+        Set<LocalDate> holidays = parseHolidays(exchange, System.getProperty("cotatrack.calendar." + exchange.name() + ".holidays", ""));
+        calendars.put(exchange, new ExchangeCalendar(ZoneId.of(zone), LocalTime.parse(open), LocalTime.parse(close), holidays, builtInHolidays));
+    }
+
+    private static Set<LocalDate> parseHolidays(StockExchange exchange, String value) {
+        Set<LocalDate> holidays = new HashSet<>();
+        for (String date : value.split(",")) {
+            if (date.isBlank()) continue;
+            try {
+                holidays.add(LocalDate.parse(date.trim()));
+            } catch (DateTimeParseException e) {
+                log.warn("Invalid holiday for {}: {}", exchange, date);
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * Gets the calendar of the exchange with the given Yahoo Finance code.
+     *
+     * @param exchangeKey the Yahoo Finance exchange code, e.g. SAO
+     * @return the calendar of the exchange or null if the exchange is unknown
+     */
+    public static ExchangeCalendar forExchange(String exchangeKey) {
+        if (exchangeKey == null) {
+            return null;
+        }
+
+        try {
+            return forExchange(StockExchange.valueOf(exchangeKey));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the calendar of the exchange a Yahoo Finance symbol is listed on, based on its suffix.
+     * Symbols without a suffix are considered to be listed in the US.
+     *
+     * @param symbol the symbol, e.g. PETR4.SA
+     * @return the calendar of the exchange or null if it can't be told from the symbol, e.g. for indexes and currencies
+     */
+    public static ExchangeCalendar forSymbol(String symbol) {
+        if (symbol.startsWith("^") || symbol.contains("=")) {
+            return null;
+        }
+
+        int separator = symbol.lastIndexOf('.');
+        if (separator < 0) {
+            return forExchange(StockExchange.NYQ);
+        }
+
+        StockExchange exchange = suffixes.get(symbol.substring(separator + 1).toUpperCase());
+        return exchange != null ? forExchange(exchange) : null;
+    }
+
+    public static ExchangeCalendar forExchange(StockExchange exchange) {
+        return calendars.get(exchange);
+    }
+
+    /**
+     * Checks if the exchange has a session on the given date.
+     *
+     * @param date the date, in the time zone of the exchange
+     * @return true if the date is not a weekend nor a holiday
+     */
+    public boolean isTradingDay(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY && !holidays.contains(date) && !builtInHolidays.test(date);
+    }
+
+    /**
+     * Gets the trading day the given number of sessions before a date.
+     *
+     * @param date the date, in the time zone of the exchange
+     * @param days the number of sessions
+     * @return the trading day
+     */
+    public LocalDate minusTradingDays(LocalDate date, int days) {
+        LocalDate result = date;
+        for (int remaining = days; remaining > 0; ) {
+            result = result.minusDays(1);
+            if (isTradingDay(result)) {
+                remaining--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the regular session is open at the given instant.
+     *
+     * @param instant the instant
+     * @return true if the market is open
+     */
+    public boolean isOpen(Instant instant) {
+        ZonedDateTime time = instant.atZone(zone);
+        LocalTime localTime = time.toLocalTime();
+        return isTradingDay(time.toLocalDate()) && !localTime.isBefore(open) && localTime.isBefore(close);
+    }
+
+    /**
+     * Gets the start of the next regular session after the given instant.
+     *
+     * @param instant the instant
+     * @return the next session open
+     */
+    public Instant nextOpen(Instant instant) {
+        ZonedDateTime time = instant.atZone(zone);
+        LocalDate date = time.toLocalDate();
+
+        if (!time.toLocalTime().isBefore(open)) {
+            date = date.plusDays(1);
+        }
+
+        for (int i = 0; i < MAX_DAYS_AHEAD && !isTradingDay(date); i++) {
+            date = date.plusDays(1);
+        }
+
+        return date.atTime(open).atZone(zone).toInstant();
+    }
+}
@@ -0,0 +1,134 @@
+package dev.jaoow.cotatrack.api.requests.dividends;
+
+import dev.jaoow.cotatrack.api.requests.dividends.calendar.DividendCalendar;
+import dev.jaoow.cotatrack.api.requests.dividends.fetch.DividendsFetcher;
+import dev.jaoow.cotatrack.api.requests.dividends.model.ListedCompaniesPage;
+import dev.jaoow.cotatrack.api.requests.dividends.model.ListedCompany;
+import dev.jaoow.cotatrack.api.requests.dividends.store.DividendsStore;
+import dev.jaoow.cotatrack.api.requests.dividends.store.StoredDividends;
+import dev.jaoow.cotatrack.api.util.ConcurrencyLimiter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Walks the companies listed on B3 in the background, storing the dividends data of those that are due,
+ * so {@link DividendsRequest} is usually served from the local store. Stored companies that aren't due are added to
+ * the {@link DividendCalendar} as they're walked.
+ */
+@Slf4j
+public class DividendsCrawler {
+
+    public static final boolean ENABLED = !Boolean.getBoolean("cotatrack.dividends.disableCrawler");
+    public static final Duration CRAWL_INTERVAL = Duration.ofHours(Long.getLong("cotatrack.dividends.crawlIntervalHours", 6));
+    public static final int MAX_CONCURRENT_FETCHES = Integer.getInteger("cotatrack.dividends.maxConcurrentFetches", 4);
+
+    private static final int PAGE_SIZE = 120;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dividends-crawler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Starts crawling now and then periodically, each crawl starting once the previous one is done.
+     * Does nothing if the crawler is disabled or already started.
+     */
+    public static void start() {
+        if (!ENABLED || !started.compareAndSet(false, true)) {
+            return;
+        }
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                int refreshed = crawl().join();
+                log.info("Refreshed the dividends of {} companies", refreshed);
+            } catch (Exception e) {
+                log.error("Failed to crawl the dividends", e);
+            }
+        }, 0, CRAWL_INTERVAL.toMinutes(), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Fetches the dividends data of every listed company that isn't stored yet or is due.
+     * Companies that fail are logged and retried on the next crawl.
+     *
+     * @return a future of the number of companies refreshed
+     */
+    public static CompletableFuture<Integer> crawl() {
+        return fetchIssuingCompanies().thenCompose(issuingCompanies -> {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter(MAX_CONCURRENT_FETCHES);
+            AtomicInteger refreshed = new AtomicInteger();
+            Instant now = Instant.now();
+
+            List<CompletableFuture<?>> refreshes = new ArrayList<>();
+            for (String issuingCompany : issuingCompanies) {
+                StoredDividends stored = DividendsStore.read(issuingCompany);
+                if (stored != null && !stored.isDue(now)) {
+                    DividendCalendar.update(issuingCompany, stored.getData());
+                    continue;
+                }
+
+                refreshes.add(limiter.submit(() -> DividendsRequest.refreshAsync(issuingCompany)).handle((data, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to refresh dividends of {}", issuingCompany, e);
+                    } else {
+                        refreshed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            log.info("Refreshing the dividends of {} of {} companies", refreshes.size(), issuingCompanies.size());
+            return CompletableFuture.allOf(refreshes.toArray(CompletableFuture[]::new)).thenApply(ignored -> refreshed.get());
+        });
+    }
+
+    /**
+     * Fetches the issuing company codes of all the listed companies, requesting the remaining pages once the
+     * first one tells how many there are.
+     *
+     * @return a future of the issuing company codes
+     */
+    private static CompletableFuture<Set<String>> fetchIssuingCompanies() {
+        return DividendsFetcher.fetchListedCompaniesAsync(1, PAGE_SIZE).thenCompose(firstPage -> {
+            List<CompletableFuture<ListedCompaniesPage>> pages = new ArrayList<>();
+            pages.add(CompletableFuture.completedFuture(firstPage));
+
+            int totalPages = firstPage != null && firstPage.getPage() != null ? firstPage.getPage().getTotalPages() : 1;
+            for (int page = 2; page <= totalPages; page++) {
+                pages.add(DividendsFetcher.fetchListedCompaniesAsync(page, PAGE_SIZE));
+            }
+
+            return CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+                Set<String> issuingCompanies = new LinkedHashSet<>();
+                for (CompletableFuture<ListedCompaniesPage> page : pages) {
+                    ListedCompaniesPage result = page.join();
+                    if (result == null || result.getResults() == null) {
+                        continue;
+                    }
+                    for (ListedCompany company : result.getResults()) {
+                        if (company.getIssuingCompany() != null && !company.getIssuingCompany().isBlank()) {
+                            issuingCompanies.add(DividendsRequest.getIssuingCompany(company.getIssuingCompany()));
+                        }
+                    }
+                }
+                return issuingCompanies;
+            });
+        });
+    }
+}
@@ -1,29 +1,44 @@
 package dev.jaoow.cotatrack.api.requests.dividends;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import dev.jaoow.cotatrack.api.requests.dividends.calendar.DividendCalendar;
 import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
 import dev.jaoow.cotatrack.api.requests.dividends.fetch.DividendsFetcher;
+import dev.jaoow.cotatrack.api.requests.dividends.store.DividendsStore;
+import dev.jaoow.cotatrack.api.requests.dividends.store.StoredDividends;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.IOException;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Gets the dividends data of a company, which is looked up in memory, then in the local store, and only fetched
+ * from B3 when it's missing or due. The data is kept per company, for all of its share classes.
+ * <p>
+ * Numbers and dates are parsed once, when the data is read, and the loaded companies are indexed by the
+ * {@link DividendCalendar}.
+ * </p>
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class DividendsRequest {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    public static final long MAX_CACHED_COMPANIES = Long.getLong("cotatrack.dividends.maxCachedCompanies", 2_000);
 
-    private static final LoadingCache<String, DividendsData> cache = Caffeine.newBuilder()
+    // Trading codes are the issuing company code followed by the share class, e.g. PETR4 or TAEE11F
+    private static final Pattern TRADING_CODE = Pattern.compile("([A-Z0-9]{4})\\d{1,2}F?");
+
+    private static final AsyncLoadingCache<String, DividendsData> cache = Caffeine.newBuilder()
             .expireAfterWrite(1, TimeUnit.HOURS)
-            .maximumSize(100)
-            .build(DividendsRequest::fetchDividendsData);
+            .maximumSize(MAX_CACHED_COMPANIES)
+            .buildAsync(DividendsRequest::loadDividendsData);
 
     private final String symbol;
 
@@ -33,28 +48,76 @@ public class DividendsRequest {
      * @return the dividends data
      */
     public DividendsData getResult() {
-        try {
-            return cache.get(symbol);
-        } catch (Exception e) {
+        return getResultAsync().join();
+    }
+
+    /**
+     * Asynchronously fetches the dividends data from the cache or fetches from the source if not present.
+     *
+     * @return a future of the dividends data, completed with null if the request fails
+     */
+    public CompletableFuture<DividendsData> getResultAsync() {
+        return cache.get(getIssuingCompany(symbol)).exceptionally(e -> {
             log.error("Failed to fetch company data", e);
             return null;
+        });
+    }
+
+    /**
+     * Gets the issuing company code of a symbol, e.g. PETR for PETR4.SA.
+     *
+     * @param symbol the symbol or the issuing company code
+     * @return the issuing company code
+     */
+    public static String getIssuingCompany(String symbol) {
+        String code = symbol.toUpperCase(Locale.ROOT);
+        int suffix = code.indexOf('.');
+        if (suffix >= 0) {
+            code = code.substring(0, suffix);
         }
+        code = code.replaceAll("[^A-Z0-9]", "");
+
+        Matcher matcher = TRADING_CODE.matcher(code);
+        return matcher.matches() ? matcher.group(1) : code;
     }
 
-    private static DividendsData fetchDividendsData(String symbol) {
-        try {
-            JsonNode companyDataNode = DividendsFetcher.fetchDividendsData(symbol);
+    /**
+     * Fetches the dividends data of a company from B3, storing it locally and replacing the cached data.
+     *
+     * @param issuingCompany the issuing company code
+     * @return a future of the dividends data, failing with an {@link java.io.IOException} if the request fails
+     */
+    static CompletableFuture<DividendsData> refreshAsync(String issuingCompany) {
+        return fetchAndStore(issuingCompany).thenApply(data -> {
+            cache.put(issuingCompany, CompletableFuture.completedFuture(data));
+            return data;
+        });
+    }
 
-            // Check if companyDataNode is a text node and parse it accordingly
-            if (companyDataNode.isTextual()) {
-                String jsonString = companyDataNode.asText();
-                companyDataNode = objectMapper.readTree(jsonString).get(0); // The response is an array with a single object
-            }
+    private static CompletableFuture<DividendsData> loadDividendsData(String issuingCompany, Executor executor) {
+        StoredDividends stored = DividendsStore.read(issuingCompany);
+        if (stored != null && !stored.isDue(Instant.now())) {
+            DividendCalendar.update(issuingCompany, stored.getData());
+            return CompletableFuture.completedFuture(stored.getData());
+        }
 
-            return objectMapper.treeToValue(companyDataNode, DividendsData.class);
-        } catch (InterruptedException | IOException e) {
-            log.error("Failed to fetch company data", e);
-            return null;
+        CompletableFuture<DividendsData> fetch = fetchAndStore(issuingCompany);
+        if (stored == null) {
+            return fetch;
         }
+
+        // Due data is still better than none
+        return fetch.exceptionally(e -> {
+            log.warn("Failed to refresh dividends of {}, using the stored data", issuingCompany, e);
+            return stored.getData();
+        });
+    }
+
+    private static CompletableFuture<DividendsData> fetchAndStore(String issuingCompany) {
+        return DividendsFetcher.fetchDividendsDataAsync(issuingCompany)
+                .thenApply(data -> {
+                    DividendCalendar.update(issuingCompany, data);
+                    return DividendsStore.write(issuingCompany, data).getData();
+                });
     }
 }
@@ -0,0 +1,60 @@
+package dev.jaoow.cotatrack.api.requests.dividends;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Locale;
+
+/**
+ * Tells the share class of a symbol apart in the ISIN codes B3 lists the events with, as the events of every
+ * share class of a company are listed together.
+ */
+@UtilityClass
+public class ShareClass {
+
+    /**
+     * Gets the part of the ISIN code identifying the share class of a symbol, e.g. ACNPR for PETR4.
+     *
+     * @param symbol the symbol
+     * @return the share class, or null if it can't be told
+     */
+    public static String of(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+
+        String code = symbol.toUpperCase(Locale.ROOT);
+        int suffix = code.indexOf('.');
+        if (suffix >= 0) {
+            code = code.substring(0, suffix);
+        }
+
+        if (code.length() < 5) {
+            return null;
+        }
+        return switch (code.substring(4)) {
+            case "3" -> "ACNOR";
+            case "4" -> "ACNPR";
+            case "5" -> "ACNPA";
+            case "6" -> "ACNPB";
+            case "7" -> "ACNPC";
+            case "8" -> "ACNPD";
+            default -> null;
+        };
+    }
+
+    /**
+     * Checks whether an ISIN code is of the share class of a symbol. Codes of unknown classes always match.
+     *
+     * @param isin   the ISIN code, e.g. BRPETRACNPR6
+     * @param symbol the symbol
+     * @return true if the code may be of the symbol
+     */
+    public static boolean matches(String isin, String symbol) {
+        String shareClass = of(symbol);
+        // ISIN codes are the country, the issuer, the share class and a check digit
+        if (shareClass == null || isin == null || isin.length() != 12) {
+            return true;
+        }
+        return isin.startsWith(shareClass, 6);
+    }
+}
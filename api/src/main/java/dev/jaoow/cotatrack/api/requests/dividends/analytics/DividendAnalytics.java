@@ -0,0 +1,117 @@
+package dev.jaoow.cotatrack.api.requests.dividends.analytics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.adjust.CorporateEvent;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes the {@link DividendSummary} of a stock from its B3 dividends data.
+ * <p>
+ * Summaries are kept per dividends data instance, which stays the same until the data is refreshed, and per day,
+ * as the trailing twelve months move daily while the data may go unrefreshed for weeks. They're computed once per
+ * refresh and day rather than once per quote. Only the yield, which depends on the price, is computed every time.
+ * </p>
+ */
+public class DividendAnalytics {
+
+    public static final int MAX_CAGR_YEARS = Integer.getInteger("cotatrack.dividends.maxCagrYears", 5);
+
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+
+    // Share events are counted for the cash events of the same day, which are paid on the shares before them
+    private static final Comparator<CorporateEvent> LATEST_FIRST = Comparator
+            .comparing(CorporateEvent::lastDatePrior)
+            .thenComparing(event -> event.kind() == CorporateEvent.Kind.SHARES)
+            .reversed();
+
+    // Weak keys, so the summaries go along with the data they were computed from
+    private static final Cache<DividendsData, Map<String, DailySummary>> cache = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    private record DailySummary(LocalDate day, DividendSummary summary) {
+    }
+
+    /**
+     * Gets the dividend summary of a stock.
+     *
+     * @param symbol the symbol, e.g. PETR4.SA
+     * @param data   the dividends data of the company
+     * @param price  the current price of the stock, used for the yield
+     * @return the summary
+     */
+    public static DividendSummary summarize(String symbol, DividendsData data, double price) {
+        LocalDate today = LocalDate.now(ZONE);
+        DividendSummary base = cache.get(data, key -> new ConcurrentHashMap<>())
+                .compute(symbol.toUpperCase(), (key, computed) -> computed != null && computed.day().equals(today)
+                        ? computed
+                        : new DailySummary(today, compute(symbol, data, today)))
+                .summary();
+
+        Double yield = price > 0 ? base.getTtmPerShare() / price : null;
+        return new DividendSummary(base.getTtmPerShare(), yield, base.getCagr(), base.getCagrYears(), base.getPaymentsPerYear());
+    }
+
+    /**
+     * Computes the price independent part of the summary.
+     *
+     * @param symbol the symbol
+     * @param data   the dividends data of the company
+     * @param today  the day the trailing twelve months end on
+     * @return the summary, without the yield
+     */
+    static DividendSummary compute(String symbol, DividendsData data, LocalDate today) {
+        List<CorporateEvent> events = CorporateEvent.fromDividends(data, symbol);
+        events.sort(LATEST_FIRST);
+
+        LocalDate ttmStart = today.minusYears(1);
+        double ttmPerShare = 0;
+        // Dividends and interest on equity paid on the same day are separate payments
+        int ttmPayments = 0;
+        Map<Integer, Double> perYear = new HashMap<>();
+
+        // Amounts paid before a share event are divided by it, to be in the current share basis
+        double sharesAfter = 1;
+        for (CorporateEvent event : events) {
+            LocalDate date = event.lastDatePrior();
+            if (date.isAfter(today)) {
+                continue; // Not reflected in the price yet
+            }
+            if (event.kind() == CorporateEvent.Kind.SHARES) {
+                sharesAfter *= event.value();
+                continue;
+            }
+
+            double amount = event.value() / sharesAfter;
+            perYear.merge(date.getYear(), amount, Double::sum);
+            if (date.isAfter(ttmStart)) {
+                ttmPerShare += amount;
+                ttmPayments++;
+            }
+        }
+
+        Double cagr = null;
+        Integer cagrYears = null;
+        int lastYear = today.getYear() - 1;
+        double last = perYear.getOrDefault(lastYear, 0.0);
+        for (int years = MAX_CAGR_YEARS; years >= 1 && last > 0; years--) {
+            double first = perYear.getOrDefault(lastYear - years, 0.0);
+            if (first > 0) {
+                cagr = Math.pow(last / first, 1.0 / years) - 1;
+                cagrYears = years;
+                break;
+            }
+        }
+
+        return new DividendSummary(ttmPerShare, null, cagr, cagrYears, ttmPayments);
+    }
+}
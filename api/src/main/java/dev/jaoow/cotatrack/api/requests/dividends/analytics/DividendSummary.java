@@ -0,0 +1,42 @@
+package dev.jaoow.cotatrack.api.requests.dividends.analytics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact dividend analytics of a stock, in the current share basis, so splits and stock dividends don't distort them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DividendSummary {
+
+    /**
+     * Cash paid per share over the last twelve months, by last date prior.
+     */
+    private double ttmPerShare;
+
+    /**
+     * Trailing twelve months cash per share over the current price, as a fraction. Null if the price is unknown.
+     */
+    private Double ttmYield;
+
+    /**
+     * Compound annual growth of the cash paid per share, between the last complete year and up to
+     * {@link DividendAnalytics#MAX_CAGR_YEARS} years before. Null if there's no such history.
+     */
+    private Double cagr;
+
+    /**
+     * Number of years the growth is computed over.
+     */
+    private Integer cagrYears;
+
+    /**
+     * Number of payments over the last twelve months, counting each dividend and interest on equity.
+     */
+    private int paymentsPerYear;
+}
@@ -0,0 +1,183 @@
+package dev.jaoow.cotatrack.api.requests.dividends.calendar;
+
+import dev.jaoow.cotatrack.api.market.ExchangeCalendar;
+import dev.jaoow.cotatrack.api.requests.dividends.DividendsRequest;
+import dev.jaoow.cotatrack.api.requests.dividends.ShareClass;
+import dev.jaoow.cotatrack.api.requests.dividends.model.CashDividend;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import dev.jaoow.cotatrack.api.requests.dividends.model.StockDividend;
+import dev.jaoow.cotatrack.api.tradingview.StockExchange;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index of the dividend events of all the companies loaded so far, sorted by ex-date and by payment date,
+ * so the events of a period or the next payment of a symbol are found with a binary search.
+ * <p>
+ * Companies are added as their dividends data is loaded or refreshed, and the index is rebuilt by the first
+ * query after a change.
+ * </p>
+ */
+public class DividendCalendar {
+
+    // How many days after the last date prior the ex-date is looked for, which is more than any sequence of holidays
+    private static final int MAX_DAYS_AHEAD = 30;
+
+    private static final Comparator<DividendEvent> BY_EX_DATE = Comparator.comparing(DividendEvent::exDate);
+    private static final Comparator<DividendEvent> BY_PAYMENT_DATE = Comparator.comparing(DividendEvent::paymentDate);
+
+    private static final Map<String, DividendEvent[]> paymentsByCompany = new ConcurrentHashMap<>();
+    private static final Map<String, List<DividendEvent>> eventsByCompany = new ConcurrentHashMap<>();
+
+    private static volatile Index index;
+
+    /**
+     * Replaces the events of a company.
+     *
+     * @param issuingCompany the issuing company code, e.g. PETR
+     * @param data           the dividends data of the company
+     */
+    public static void update(String issuingCompany, DividendsData data) {
+        if (data == null) {
+            return;
+        }
+
+        ExchangeCalendar calendar = ExchangeCalendar.forExchange(StockExchange.SAO);
+        List<DividendEvent> events = new ArrayList<>();
+
+        if (data.getCashDividends() != null) {
+            for (CashDividend dividend : data.getCashDividends()) {
+                if (dividend.getLastDatePrior() != null) {
+                    events.add(new DividendEvent(issuingCompany, dividend.getAssetIssued(), DividendEvent.Type.CASH,
+                            dividend.getLabel(), dividend.getRate(), dividend.getApprovedOn(), dividend.getLastDatePrior(),
+                            getExDate(calendar, dividend.getLastDatePrior()), dividend.getPaymentDate()));
+                }
+            }
+        }
+        if (data.getStockDividends() != null) {
+            for (StockDividend dividend : data.getStockDividends()) {
+                if (dividend.getLastDatePrior() != null) {
+                    events.add(new DividendEvent(issuingCompany, dividend.getAssetIssued(), DividendEvent.Type.STOCK,
+                            dividend.getLabel(), dividend.getFactor(), dividend.getApprovedOn(), dividend.getLastDatePrior(),
+                            getExDate(calendar, dividend.getLastDatePrior()), null));
+                }
+            }
+        }
+
+        DividendEvent[] payments = events.stream().filter(event -> event.paymentDate() != null).toArray(DividendEvent[]::new);
+        Arrays.sort(payments, BY_PAYMENT_DATE);
+
+        synchronized (DividendCalendar.class) {
+            eventsByCompany.put(issuingCompany, List.copyOf(events));
+            paymentsByCompany.put(issuingCompany, payments);
+            index = null;
+        }
+    }
+
+    /**
+     * Gets the events whose ex-date is within the given period, of all the loaded companies.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return the events, sorted by ex-date
+     */
+    public static List<DividendEvent> getEventsBetween(LocalDate from, LocalDate to) {
+        return between(getIndex().byExDate(), DividendEvent::exDate, from, to);
+    }
+
+    /**
+     * Gets the cash events paid within the given period, of all the loaded companies.
+     *
+     * @param from the first day of the period
+     * @param to   the last day of the period
+     * @return the events, sorted by payment date
+     */
+    public static List<DividendEvent> getPaymentsBetween(LocalDate from, LocalDate to) {
+        return between(getIndex().byPaymentDate(), DividendEvent::paymentDate, from, to);
+    }
+
+    /**
+     * Gets the next payment of a symbol, among the loaded companies.
+     *
+     * @param symbol the symbol, e.g. PETR4.SA
+     * @param from   the first day the payment may be on
+     * @return the next payment, or null if none is scheduled or the company isn't loaded
+     */
+    public static DividendEvent getNextPayment(String symbol, LocalDate from) {
+        DividendEvent[] sorted = paymentsByCompany.get(DividendsRequest.getIssuingCompany(symbol));
+        if (sorted == null) {
+            return null;
+        }
+
+        for (int i = lowerBound(sorted, DividendEvent::paymentDate, from); i < sorted.length; i++) {
+            if (ShareClass.matches(sorted[i].assetIssued(), symbol)) {
+                return sorted[i];
+            }
+        }
+        return null;
+    }
+
+    private static List<DividendEvent> between(DividendEvent[] sorted, Function<DividendEvent, LocalDate> key,
+                                               LocalDate from, LocalDate to) {
+        int start = lowerBound(sorted, key, from);
+        int end = lowerBound(sorted, key, to.plusDays(1));
+        return start < end ? List.of(Arrays.copyOfRange(sorted, start, end)) : List.of();
+    }
+
+    // Index of the first event on or after the given day
+    private static int lowerBound(DividendEvent[] sorted, Function<DividendEvent, LocalDate> key, LocalDate date) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key.apply(sorted[middle]).isBefore(date)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Index getIndex() {
+        Index current = index;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (DividendCalendar.class) {
+            if (index == null) {
+                List<DividendEvent> events = new ArrayList<>();
+                eventsByCompany.values().forEach(events::addAll);
+                DividendEvent[] byExDate = events.toArray(DividendEvent[]::new);
+                Arrays.sort(byExDate, BY_EX_DATE);
+
+                List<DividendEvent> payments = new ArrayList<>();
+                paymentsByCompany.values().forEach(companyPayments -> payments.addAll(Arrays.asList(companyPayments)));
+                DividendEvent[] byPaymentDate = payments.toArray(DividendEvent[]::new);
+                Arrays.sort(byPaymentDate, BY_PAYMENT_DATE);
+
+                index = new Index(byExDate, byPaymentDate);
+            }
+            return index;
+        }
+    }
+
+    private static LocalDate getExDate(ExchangeCalendar calendar, LocalDate lastDatePrior) {
+        LocalDate date = lastDatePrior.plusDays(1);
+        for (int i = 0; i < MAX_DAYS_AHEAD && !calendar.isTradingDay(date); i++) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+
+    private record Index(DividendEvent[] byExDate, DividendEvent[] byPaymentDate) {
+    }
+}
@@ -0,0 +1,33 @@
+package dev.jaoow.cotatrack.api.requests.dividends.calendar;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Dividend event of a company, as indexed by the {@link DividendCalendar}.
+ *
+ * @param issuingCompany the issuing company code, e.g. PETR
+ * @param assetIssued    the ISIN code of the shares the event is for
+ * @param type           the type of the event
+ * @param label          the label of the event, e.g. DIVIDENDO or DESDOBRAMENTO
+ * @param value          the amount paid per share for a cash event, or the factor of a stock event
+ * @param approvedOn     the day the event was approved
+ * @param lastDatePrior  the last day the shares traded with the right to the event
+ * @param exDate         the first session without the right to the event
+ * @param paymentDate    the day the amount is paid, null for stock events and unscheduled payments
+ */
+public record DividendEvent(String issuingCompany,
+                            String assetIssued,
+                            Type type,
+                            String label,
+                            BigDecimal value,
+                            LocalDate approvedOn,
+                            LocalDate lastDatePrior,
+                            LocalDate exDate,
+                            LocalDate paymentDate) {
+
+    public enum Type {
+        CASH,
+        STOCK
+    }
+}
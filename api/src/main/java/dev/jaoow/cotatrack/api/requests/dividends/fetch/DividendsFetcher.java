@@ -1,7 +1,14 @@
 package dev.jaoow.cotatrack.api.requests.dividends.fetch;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import dev.jaoow.cotatrack.api.requests.dividends.model.ListedCompaniesPage;
+import dev.jaoow.cotatrack.api.util.ConcurrencyLimiter;
+import dev.jaoow.cotatrack.api.util.Utils;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -16,40 +23,103 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 public class DividendsFetcher {
 
     private static final String GET_LISTED_SUPPLEMENT_COMPANY = "https://sistemaswebb3-listados.b3.com.br/listedCompaniesProxy/CompanyCall/GetListedSupplementCompany/";
+    private static final String GET_INITIAL_COMPANIES = "https://sistemaswebb3-listados.b3.com.br/listedCompaniesProxy/CompanyCall/GetInitialCompanies/";
     private static final String DEFAULT_LANGUAGE = "pt-br";
 
     private static final HttpClient httpClient = HttpClient.newBuilder()
             .sslContext(createSslContext())
             .build();
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-    public static JsonNode fetchDividendsData(String symbol) throws IOException, InterruptedException {
-        CompanyRequest requestPayload = new CompanyRequest(symbol, DEFAULT_LANGUAGE);
+    public static DividendsData fetchDividendsData(String issuingCompany) throws IOException {
+        return Utils.await(fetchDividendsDataAsync(issuingCompany));
+    }
+
+    /**
+     * Asynchronously fetches the dividends of a company from B3.
+     *
+     * @param issuingCompany the issuing company code, e.g. PETR
+     * @return a future of the dividends data, failing with an {@link IOException} if the request fails
+     */
+    public static CompletableFuture<DividendsData> fetchDividendsDataAsync(String issuingCompany) {
+        return sendAsync(GET_LISTED_SUPPLEMENT_COMPANY, new CompanyRequest(issuingCompany, DEFAULT_LANGUAGE), DividendsData.class)
+                .thenApply(data -> data != null ? data : new DividendsData(new ArrayList<>(), new ArrayList<>()));
+    }
+
+    /**
+     * Asynchronously fetches a page of the companies listed on B3.
+     *
+     * @param pageNumber the page number, starting at 1
+     * @param pageSize   the number of companies per page
+     * @return a future of the page, failing with an {@link IOException} if the request fails
+     */
+    public static CompletableFuture<ListedCompaniesPage> fetchListedCompaniesAsync(int pageNumber, int pageSize) {
+        return sendAsync(GET_INITIAL_COMPANIES, new CompaniesPageRequest(DEFAULT_LANGUAGE, pageNumber, pageSize), ListedCompaniesPage.class);
+    }
 
+    private static <T> CompletableFuture<T> sendAsync(String baseUrl, Object requestPayload, Class<T> responseType) {
         // Convert the payload to a JSON string and encode it in Base64
-        byte[] payloadBytes = objectMapper.writeValueAsString(requestPayload).getBytes(StandardCharsets.UTF_8);
+        byte[] payloadBytes;
+        try {
+            payloadBytes = objectMapper.writeValueAsString(requestPayload).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
         String payloadBase64 = Base64.getEncoder().encodeToString(payloadBytes);
 
-        String url = GET_LISTED_SUPPLEMENT_COMPANY + payloadBase64;
+        String url = baseUrl + payloadBase64;
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Accept", "application/json")
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return ConcurrencyLimiter.forHost(request.uri().getHost())
+                .submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new CompletionException(new IOException("Failed to fetch data: HTTP status code " + response.statusCode()));
+                    }
+
+                    try {
+                        return parse(response.body(), responseType);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
 
-        if (response.statusCode() == 200) {
-            return objectMapper.readTree(response.body()); // The response is an array with a single object
-        } else {
-            throw new IOException("Failed to fetch data: HTTP status code " + response.statusCode());
+    /**
+     * Binds a response straight to the given type, without building a tree. Some responses are a JSON string holding
+     * the actual JSON, and some are an array with a single object.
+     *
+     * @param body the response body
+     * @param type the type to bind to
+     * @param <T>  the type of the result
+     * @return the bound value, or null if the response is empty
+     * @throws IOException if the response is not valid JSON
+     */
+    static <T> T parse(String body, Class<T> type) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_STRING) {
+                return parse(parser.getText(), type);
+            }
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            return token == JsonToken.START_OBJECT ? objectMapper.readValue(parser, type) : null;
         }
     }
 
@@ -82,4 +152,12 @@ public class DividendsFetcher {
         private String issuingCompany;
         private String language;
     }
+
+    @Data
+    @AllArgsConstructor
+    private static class CompaniesPageRequest {
+        private String language;
+        private int pageNumber;
+        private int pageSize;
+    }
 }
@@ -1,20 +1,44 @@
 package dev.jaoow.cotatrack.api.requests.dividends.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import dev.jaoow.cotatrack.api.util.BrazilianFormat;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cash distribution of a company, e.g. a dividend or interest on equity.
+ * Numbers and dates are parsed from the B3 format when read, and written in the ISO format.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class CashDividend {
     private String assetIssued;
-    private String paymentDate;
-    private String rate;
+
+    @JsonDeserialize(using = BrazilianFormat.DateDeserializer.class)
+    @JsonSerialize(using = BrazilianFormat.DateSerializer.class)
+    private LocalDate paymentDate;
+
+    @JsonDeserialize(using = BrazilianFormat.DecimalDeserializer.class)
+    private BigDecimal rate;
+
     private String relatedTo;
-    private String approvedOn;
+
+    @JsonDeserialize(using = BrazilianFormat.DateDeserializer.class)
+    @JsonSerialize(using = BrazilianFormat.DateSerializer.class)
+    private LocalDate approvedOn;
+
     private String isinCode;
     private String label;
-    private String lastDatePrior;
+
+    @JsonDeserialize(using = BrazilianFormat.DateDeserializer.class)
+    @JsonSerialize(using = BrazilianFormat.DateSerializer.class)
+    private LocalDate lastDatePrior;
+
     private String remarks;
 }
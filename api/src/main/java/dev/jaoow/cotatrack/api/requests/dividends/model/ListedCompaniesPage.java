@@ -0,0 +1,25 @@
+package dev.jaoow.cotatrack.api.requests.dividends.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListedCompaniesPage {
+    private PageInfo page;
+    private List<ListedCompany> results;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PageInfo {
+        private int pageNumber;
+        private int pageSize;
+        private int totalRecords;
+        private int totalPages;
+    }
+}
@@ -0,0 +1,18 @@
+package dev.jaoow.cotatrack.api.requests.dividends.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListedCompany {
+    private String codeCVM;
+    private String issuingCompany;
+    private String companyName;
+    private String tradingName;
+    private String cnpj;
+    private String segment;
+    private String market;
+}
@@ -1,18 +1,38 @@
 package dev.jaoow.cotatrack.api.requests.dividends.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import dev.jaoow.cotatrack.api.util.BrazilianFormat;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Event changing the number of shares of a company, e.g. a split, a reverse split or a stock dividend.
+ * Numbers and dates are parsed from the B3 format when read, and written in the ISO format.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class StockDividend {
     private String assetIssued;
-    private String factor;
-    private String approvedOn;
+
+    @JsonDeserialize(using = BrazilianFormat.DecimalDeserializer.class)
+    private BigDecimal factor;
+
+    @JsonDeserialize(using = BrazilianFormat.DateDeserializer.class)
+    @JsonSerialize(using = BrazilianFormat.DateSerializer.class)
+    private LocalDate approvedOn;
+
     private String isinCode;
     private String label;
-    private String lastDatePrior;
+
+    @JsonDeserialize(using = BrazilianFormat.DateDeserializer.class)
+    @JsonSerialize(using = BrazilianFormat.DateSerializer.class)
+    private LocalDate lastDatePrior;
+
     private String remarks;
 }
@@ -0,0 +1,81 @@
+package dev.jaoow.cotatrack.api.requests.dividends.store;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Local store of the dividends data, one file per company under {@code <directory>/<issuing company>.json},
+ * so it survives restarts. Store failures are logged and treated as misses.
+ */
+@Slf4j
+public class DividendsStore {
+
+    public static final boolean ENABLED = !Boolean.getBoolean("cotatrack.dividends.disableStore");
+    public static final Path DIRECTORY = Path.of(System.getProperty("cotatrack.dividends.storeDirectory",
+            Path.of(System.getProperty("user.home"), ".cotatrack", "dividends").toString()));
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Reads the stored dividends data of a company.
+     *
+     * @param issuingCompany the issuing company code, e.g. PETR
+     * @return the stored data, or null if it isn't stored or the store is disabled
+     */
+    public static StoredDividends read(String issuingCompany) {
+        if (!ENABLED) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(getPath(issuingCompany).toFile(), StoredDividends.class);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read stored dividends of {}", issuingCompany, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the dividends data of a company, fetched now.
+     *
+     * @param issuingCompany the issuing company code, e.g. PETR
+     * @param data           the dividends data
+     * @return the stored data
+     */
+    public static StoredDividends write(String issuingCompany, DividendsData data) {
+        StoredDividends stored = new StoredDividends(Instant.now().getEpochSecond(), data);
+        if (!ENABLED) {
+            return stored;
+        }
+
+        Path path = getPath(issuingCompany);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(DIRECTORY);
+            objectMapper.writeValue(temporary.toFile(), stored);
+            // Readers never see a partially written file
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store dividends of {}", issuingCompany, e);
+        }
+        return stored;
+    }
+
+    private static Path getPath(String issuingCompany) {
+        return DIRECTORY.resolve(issuingCompany.toUpperCase(Locale.ROOT) + ".json");
+    }
+}
@@ -0,0 +1,91 @@
+package dev.jaoow.cotatrack.api.requests.dividends.store;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import dev.jaoow.cotatrack.api.requests.dividends.model.CashDividend;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import dev.jaoow.cotatrack.api.requests.dividends.model.StockDividend;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Dividends data of a company, along with when it was fetched.
+ * <p>
+ * Companies with recent events are refreshed more often: a company whose latest event was approved or went ex
+ * {@code N} days ago is due after {@code N / 10} days, between {@link #MIN_REFRESH} and {@link #MAX_REFRESH}.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoredDividends {
+
+    public static final Duration MIN_REFRESH = Duration.ofHours(Long.getLong("cotatrack.dividends.minRefreshHours", 24));
+    public static final Duration MAX_REFRESH = Duration.ofDays(Long.getLong("cotatrack.dividends.maxRefreshDays", 30));
+
+    // Epoch seconds
+    private long fetchedAt;
+    private DividendsData data;
+
+    /**
+     * Checks whether the data should be fetched again.
+     *
+     * @param now the current instant
+     * @return true if the data is due
+     */
+    public boolean isDue(Instant now) {
+        return !now.isBefore(Instant.ofEpochSecond(fetchedAt).plus(getRefreshInterval()));
+    }
+
+    /**
+     * Gets how long the data is kept before being fetched again, based on how recent the latest event is.
+     *
+     * @return the refresh interval
+     */
+    @JsonIgnore
+    public Duration getRefreshInterval() {
+        LocalDate latest = getLatestEventDate();
+        if (latest == null) {
+            return MAX_REFRESH;
+        }
+
+        LocalDate fetchedOn = Instant.ofEpochSecond(fetchedAt).atOffset(ZoneOffset.UTC).toLocalDate();
+        long age = Math.max(0, ChronoUnit.DAYS.between(latest, fetchedOn));
+        Duration interval = Duration.ofDays(age / 10);
+        if (interval.compareTo(MIN_REFRESH) < 0) {
+            return MIN_REFRESH;
+        }
+        return interval.compareTo(MAX_REFRESH) > 0 ? MAX_REFRESH : interval;
+    }
+
+    private LocalDate getLatestEventDate() {
+        LocalDate latest = null;
+        if (data == null) {
+            return null;
+        }
+
+        if (data.getCashDividends() != null) {
+            for (CashDividend dividend : data.getCashDividends()) {
+                latest = max(latest, dividend.getLastDatePrior());
+                latest = max(latest, dividend.getApprovedOn());
+            }
+        }
+        if (data.getStockDividends() != null) {
+            for (StockDividend dividend : data.getStockDividends()) {
+                latest = max(latest, dividend.getLastDatePrior());
+                latest = max(latest, dividend.getApprovedOn());
+            }
+        }
+        return latest;
+    }
+
+    private static LocalDate max(LocalDate latest, LocalDate date) {
+        return date != null && (latest == null || date.isAfter(latest)) ? date : latest;
+    }
+}
@@ -0,0 +1,292 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streaming parser of the v8 chart response.
+ * <p>
+ * The {@code timestamp}, {@code open}, {@code high}, {@code low}, {@code close}, {@code volume} and
+ * {@code adjclose} arrays are read token by token straight into primitive arrays, without building a tree.
+ * Yahoo leaves gaps as {@code null}: missing prices are read as {@link Double#NaN} and missing volumes as
+ * {@link HistoricalSeries#MISSING_VOLUME}. Intraday responses have no adjusted close, which is then missing too.
+ * </p>
+ * <p>
+ * The times of the corporate events within the period are read as well, as Yahoo rewrites the past bars on them.
+ * </p>
+ */
+final class ChartResponseParser {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private long[] timestamps = new long[0];
+    private double[] open = new double[0];
+    private double[] high = new double[0];
+    private double[] low = new double[0];
+    private double[] close = new double[0];
+    private double[] adjClose = new double[0];
+    private long[] volume = new long[0];
+    private long[] eventTimes = new long[0];
+
+    private ChartResponseParser() {
+    }
+
+    /**
+     * Bars of a chart response, along with the corporate events within its period.
+     *
+     * @param bars       the bars
+     * @param eventTimes the times of the dividends and splits, in epoch seconds
+     */
+    record Chart(HistoricalSeries bars, long[] eventTimes) {
+
+        /**
+         * Gets the time of the latest corporate event that took effect by the given time.
+         *
+         * @param time the time, in epoch seconds
+         * @return the time of the event, or {@link Long#MIN_VALUE} if there's none
+         */
+        long getLastEventTime(long time) {
+            long last = Long.MIN_VALUE;
+            for (long eventTime : eventTimes) {
+                if (eventTime <= time) {
+                    last = Math.max(last, eventTime);
+                }
+            }
+            return last;
+        }
+    }
+
+    /**
+     * Parses the bars and the corporate events of a chart response.
+     *
+     * @param body the body of the response
+     * @return the chart, without bars if the response has no result
+     * @throws IOException if the response is not valid JSON
+     */
+    static Chart parse(byte[] body) throws IOException {
+        ChartResponseParser chartParser = new ChartResponseParser();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected chart response: expected an object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (field.equals("chart") && parser.currentToken() == JsonToken.START_OBJECT) {
+                    chartParser.readChart(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new Chart(chartParser.toSeries(), chartParser.eventTimes);
+    }
+
+    private void readChart(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("result") && parser.currentToken() == JsonToken.START_ARRAY) {
+                // A single symbol is requested, so only the first result is read
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readResult(parser);
+                }
+                skipRemainingElements(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readResult(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("timestamp")) {
+                timestamps = readLongs(parser, 0);
+            } else if (field.equals("indicators") && parser.currentToken() == JsonToken.START_OBJECT) {
+                readIndicators(parser);
+            } else if (field.equals("events") && parser.currentToken() == JsonToken.START_OBJECT) {
+                readEvents(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readIndicators(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ((field.equals("quote") || field.equals("adjclose")) && parser.currentToken() == JsonToken.START_ARRAY) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readColumns(parser);
+                }
+                skipRemainingElements(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    // Events are grouped by type, e.g. dividends and splits, and keyed by their time
+    private void readEvents(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readEvent(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readEvent(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (field.equals("date") && token == JsonToken.VALUE_NUMBER_INT) {
+                eventTimes = Arrays.copyOf(eventTimes, eventTimes.length + 1);
+                eventTimes[eventTimes.length - 1] = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readColumns(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "open" -> open = readDoubles(parser);
+                case "high" -> high = readDoubles(parser);
+                case "low" -> low = readDoubles(parser);
+                case "close" -> close = readDoubles(parser);
+                case "adjclose" -> adjClose = readDoubles(parser);
+                case "volume" -> volume = readLongs(parser, HistoricalSeries.MISSING_VOLUME);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static double[] readDoubles(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return new double[0];
+        }
+
+        double[] values = new double[16];
+        int size = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                    ? parser.getDoubleValue()
+                    : Double.NaN;
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static long[] readLongs(JsonParser parser, long missingValue) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return new long[0];
+        }
+
+        long[] values = new long[16];
+        int size = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                    ? parser.getValueAsLong()
+                    : missingValue;
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static void skipRemainingElements(JsonParser parser) throws IOException {
+        while (parser.currentToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+            parser.nextToken();
+        }
+    }
+
+    /**
+     * Builds the series from the columns. Yahoo repeats the live bar, with the same time as an earlier bar or an
+     * earlier time, so only the last bar of a repeated time is kept and bars older than the previous ones are
+     * dropped, keeping the timestamps strictly increasing.
+     *
+     * @return the series
+     */
+    private HistoricalSeries toSeries() {
+        // Indexes of the bars kept, by increasing timestamp
+        int[] kept = new int[timestamps.length];
+        int size = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            if (size == 0 || timestamps[i] > timestamps[kept[size - 1]]) {
+                kept[size++] = i;
+            } else {
+                int index = indexOf(kept, size, timestamps[i]);
+                if (index >= 0) {
+                    kept[index] = i;
+                }
+            }
+        }
+
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(size);
+        for (int k = 0; k < size; k++) {
+            int i = kept[k];
+            builder.add(
+                    timestamps[i],
+                    valueAt(open, i),
+                    valueAt(high, i),
+                    valueAt(low, i),
+                    valueAt(close, i),
+                    valueAt(adjClose, i),
+                    i < volume.length ? volume[i] : HistoricalSeries.MISSING_VOLUME
+            );
+        }
+        return builder.build();
+    }
+
+    // Index of the kept bar with the given timestamp, or -1 if there's none
+    private int indexOf(int[] kept, int size, long timestamp) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleTimestamp = timestamps[kept[middle]];
+            if (middleTimestamp < timestamp) {
+                low = middle + 1;
+            } else if (middleTimestamp > timestamp) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    // Columns may be missing or shorter than the timestamps
+    private static double valueAt(double[] column, int index) {
+        return index < column.length ? column[index] : Double.NaN;
+    }
+}
@@ -1,49 +1,63 @@
 package dev.jaoow.cotatrack.api.requests.historicalquotes;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jaoow.cotatrack.api.market.ExchangeCalendar;
+import dev.jaoow.cotatrack.api.requests.dividends.DividendsRequest;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.adjust.CorporateEvent;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.adjust.PriceAdjuster;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.CachedBars;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.HistoricalBarCache;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.TimeRange;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalQuote;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Range;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.resample.BarResampler;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.store.HistoricalBarStore;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.store.StoredBars;
+import dev.jaoow.cotatrack.api.util.ConcurrencyLimiter;
 import dev.jaoow.cotatrack.api.util.Utils;
 import dev.jaoow.cotatrack.api.yahoo.YahooCredentials;
 import dev.jaoow.cotatrack.api.yahoo.YahooConstants;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 @Slf4j
 @lombok.Builder(builderClassName = "Builder")
 public class HistoricalQuotesRequest {
 
-    public static final LocalDate DEFAULT_FROM = LocalDate.now().minusYears(1);
-    public static final LocalDate DEFAULT_TO = LocalDate.now();
-
     public static final Interval DEFAULT_INTERVAL = Interval.ONE_DAY;
     public static final Range DEFAULT_RANGE = Range.FIVE_DAYS;
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final HttpClient httpClient = HttpClient.newBuilder().build();
 
+    // Indexes and currencies, which have no known calendar, are counted as trading around the clock on weekdays, in UTC
+    private static final ExchangeCalendar AROUND_THE_CLOCK = new ExchangeCalendar(ZoneOffset.UTC, LocalTime.MIN, LocalTime.MAX, Set.of());
+
     private final String symbol;
 
-    @lombok.Builder.Default
-    private final LocalDate from = DEFAULT_FROM;
+    // When set, takes precedence over the range
+    private final LocalDate from;
 
-    @lombok.Builder.Default
-    private final LocalDate to = DEFAULT_TO;
+    // When not set, the current day on the exchange of the symbol
+    private final LocalDate to;
 
     @lombok.Builder.Default
     private final Interval interval = DEFAULT_INTERVAL;
@@ -51,6 +65,10 @@ public class HistoricalQuotesRequest {
     @lombok.Builder.Default
     private final Range range = DEFAULT_RANGE;
 
+    // When set, the prices are back-adjusted locally for the dividends and stock events published by B3
+    @lombok.Builder.Default
+    private final boolean adjusted = false;
+
 
     /**
      * Fetches the historical quotes from the Yahoo Finance API.
@@ -58,52 +76,404 @@ public class HistoricalQuotesRequest {
      * @return the historical quotes
      */
     public List<HistoricalQuote> getResult() {
-        JsonNode data = null;
-        try {
-            data = fetchData();
-        } catch (InterruptedException | IOException e) {
-            log.error("Failed to fetch data", e);
+        return getResultAsync().join();
+    }
+
+    /**
+     * Asynchronously fetches the historical quotes from the Yahoo Finance API.
+     *
+     * @return a future of the historical quotes, completed with the quotes that could be loaded if some of the fetches fail
+     */
+    public CompletableFuture<List<HistoricalQuote>> getResultAsync() {
+        return getSeriesAsync().thenApply(HistoricalSeries::asList);
+    }
+
+    /**
+     * Asynchronously fetches the historical quotes from the Yahoo Finance API as a compact series.
+     * <p>
+     * Bars are cached per symbol and interval, in memory and then in the local store, so only the parts of the
+     * requested window that weren't fetched yet are requested, usually the latest bars. When finer bars of the
+     * window are held locally, they're aggregated into the requested interval instead.
+     * </p>
+     * <p>
+     * Yahoo rewrites the past bars on corporate events, so once a fetch reports an event newer than the cached bars
+     * of the symbol, they're dropped and the window is fetched again, keeping every bar on the same price basis.
+     * </p>
+     *
+     * @return a future of the historical series, completed with the bars that could be loaded if some of the fetches fail
+     * @throws IllegalArgumentException if the window is invalid or can't be served for the interval
+     */
+    public CompletableFuture<HistoricalSeries> getSeriesAsync() {
+        return loadSeriesAsync(resolveWindow());
+    }
+
+    /**
+     * Asynchronously fetches the historical series along with up to the given number of bars before the window, so
+     * indicators computed over it have values from the first bar of the window on. Fewer bars are included when
+     * upstream doesn't serve bars of the interval that far back.
+     *
+     * @param warmUpBars the number of bars before the window
+     * @return a future of the bars, completed with the bars that could be loaded if some of the fetches fail
+     * @throws IllegalArgumentException if the window is invalid or can't be served for the interval
+     */
+    public CompletableFuture<WarmedUpSeries> getSeriesAsync(int warmUpBars) {
+        TimeRange window = resolveWindow();
+        TimeRange extended = new TimeRange(getWarmUpStart(window.start(), warmUpBars), window.end());
+        return loadSeriesAsync(extended).thenApply(series -> new WarmedUpSeries(series, window.start()));
+    }
+
+    /**
+     * Bars of the requested window, preceded by the bars fetched to warm indicators up.
+     *
+     * @param series      the bars, starting with the warm-up bars
+     * @param windowStart the start of the requested window, in epoch seconds
+     */
+    public record WarmedUpSeries(HistoricalSeries series, long windowStart) {
+
+        /**
+         * Gets the index of the first bar of the requested window.
+         *
+         * @return the index of the bar
+         */
+        public int getWindowIndex() {
+            return series.indexOf(windowStart);
         }
 
-        if (data == null) {
-            return Collections.emptyList();
+        /**
+         * Gets the bars of the requested window, without the warm-up bars.
+         *
+         * @return the bars
+         */
+        public HistoricalSeries getWindow() {
+            return series.slice(windowStart, Long.MAX_VALUE);
         }
+    }
 
-        JsonNode resultNode = data.get("chart").get("result").get(0);
-        JsonNode timestamps = resultNode.get("timestamp");
-        JsonNode indicators = resultNode.get("indicators");
+    private CompletableFuture<HistoricalSeries> loadSeriesAsync(TimeRange window) {
+        Interval source = selectSource(window);
+        CompletableFuture<HistoricalSeries> bars = loadAsync(source, window);
+        if (this.adjusted) {
+            bars = bars.thenCompose(series -> adjustAsync(source, window, series));
+        }
 
-        return IntStream.range(0, timestamps.size())
-                .mapToObj(i -> createHistoricalQuote(timestamps, indicators, i))
-                .collect(Collectors.toList());
+        if (source != this.interval) {
+            log.info("Resampling {} bars of {} into {}", source.getTag(), this.symbol, this.interval.getTag());
+            ExchangeCalendar calendar = ExchangeCalendar.forSymbol(this.symbol);
+            return bars.thenApply(series -> BarResampler.resample(series, this.interval, calendar));
+        }
+        return bars;
     }
 
-    private HistoricalQuote createHistoricalQuote(JsonNode timestamps, JsonNode indicators, int index) {
-        long timestamp = timestamps.get(index).asLong();
-        JsonNode quoteNode = indicators.get("quote").get(0);
+    /**
+     * Back-adjusts the loaded bars for the corporate events of the symbol. All the cached bars of the interval are
+     * adjusted and kept, so the next requests only rescale the bars before the events published since. The bars
+     * fetched before a share event B3 already published are fetched again first, so they're all split-adjusted.
+     *
+     * @param interval the interval of the bars
+     * @param window   the requested window
+     * @param series   the unadjusted bars within the window
+     * @return a future of the adjusted bars, completed with the unadjusted bars if the events can't be fetched
+     */
+    private CompletableFuture<HistoricalSeries> adjustAsync(Interval interval, TimeRange window, HistoricalSeries series) {
+        if (series.isEmpty()) {
+            return CompletableFuture.completedFuture(series);
+        }
 
-        BigDecimal adjClose = indicators.get("adjclose").get(0).get("adjclose").get(index).decimalValue();
+        return new DividendsRequest(this.symbol).getResultAsync().thenCompose(dividends -> {
+            if (dividends == null) {
+                log.warn("Returning unadjusted bars of {}, as its corporate events couldn't be fetched", this.symbol);
+                return CompletableFuture.completedFuture(series);
+            }
 
-        long volume = quoteNode.get("volume").get(index).asLong();
-        BigDecimal open = quoteNode.get("open").get(index).decimalValue();
-        BigDecimal high = quoteNode.get("high").get(index).decimalValue();
-        BigDecimal low = quoteNode.get("low").get(index).decimalValue();
-        BigDecimal close = quoteNode.get("close").get(index).decimalValue();
+            List<CorporateEvent> events = CorporateEvent.fromDividends(dividends, this.symbol);
 
-        return new HistoricalQuote(timestamp, open, low, high, close, adjClose, volume);
+            // B3 may publish a share event before a fetch reports it, and upstream bars are split-adjusted
+            CompletableFuture<HistoricalSeries> loaded = CompletableFuture.completedFuture(series);
+            long eventTime = getLastShareEventTime(events);
+            if (HistoricalBarCache.get(this.symbol, interval).isFetchedBefore(eventTime)) {
+                log.info("Dropping the cached bars of {}, fetched before its share event at {}",
+                        this.symbol, Instant.ofEpochSecond(eventTime));
+                invalidate(eventTime);
+                loaded = loadAsync(interval, window, true);
+            }
+
+            return loaded.thenApply(reloaded -> {
+                HistoricalSeries cached = HistoricalBarCache.get(this.symbol, interval).getSeries();
+                HistoricalSeries raw = cached.isEmpty() ? reloaded : cached;
+                return PriceAdjuster.adjust(this.symbol, interval, raw, events).toSeries().slice(window.start(), window.end());
+            });
+        });
     }
 
-    private JsonNode fetchData() throws IOException, InterruptedException {
-        if (this.from.isAfter(this.to)) {
-            log.error("Unable to retrieve historical quotes. From-date should not be after to-date. From: {}, to: {}", this.from, this.to);
-            return null;
+    /**
+     * Gets the time of the latest share event that took effect, i.e. the start of its ex-date on the exchange.
+     *
+     * @param events the corporate events of the symbol
+     * @return the time of the event, in epoch seconds, or {@link Long#MIN_VALUE} if there's none
+     */
+    private long getLastShareEventTime(List<CorporateEvent> events) {
+        ZoneId zone = getCalendar().getZone();
+        long now = Instant.now().getEpochSecond();
+
+        long last = Long.MIN_VALUE;
+        for (CorporateEvent event : events) {
+            if (event.kind() != CorporateEvent.Kind.SHARES) {
+                continue;
+            }
+
+            long exDate = event.lastDatePrior().plusDays(1).atStartOfDay(zone).toEpochSecond();
+            if (exDate <= now) {
+                last = Math.max(last, exDate);
+            }
         }
+        return last;
+    }
+
+    /**
+     * Selects the interval to load. A finer interval is loaded and resampled when less of the window is missing
+     * locally for it than for the requested interval.
+     *
+     * @param window the requested window
+     * @return the interval to load
+     */
+    private Interval selectSource(TimeRange window) {
+        Interval selected = this.interval;
+        long selectedMissing = countMissingSeconds(this.interval, window);
+        LocalDate start = Instant.ofEpochSecond(window.start()).atZone(getCalendar().getZone()).toLocalDate();
+
+        for (Interval source : BarResampler.getSources(this.interval)) {
+            if (selectedMissing == 0) {
+                break;
+            }
+            if (!isWithinLookback(source, start)) {
+                continue;
+            }
+
+            long missing = countMissingSeconds(source, window);
+            if (missing < selectedMissing) {
+                selected = source;
+                selectedMissing = missing;
+            }
+        }
+        return selected;
+    }
+
+    private long countMissingSeconds(Interval interval, TimeRange window) {
+        long missingSeconds = 0;
+        for (TimeRange missingRange : HistoricalBarCache.getMissingRanges(this.symbol, interval, window)) {
+            long seconds = missingRange.end() - missingRange.start();
+            for (TimeRange stored : HistoricalBarStore.getStoredRanges(this.symbol, interval, missingRange)) {
+                seconds -= stored.end() - stored.start();
+            }
+            missingSeconds += Math.max(seconds, 0);
+        }
+        return missingSeconds;
+    }
+
+    private CompletableFuture<HistoricalSeries> loadAsync(Interval interval, TimeRange window) {
+        return loadAsync(interval, window, false);
+    }
+
+    private CompletableFuture<HistoricalSeries> loadAsync(Interval interval, TimeRange window, boolean reloaded) {
+        CachedBars cachedBars = HistoricalBarCache.get(this.symbol, interval);
+        List<TimeRange> missingRanges = cachedBars.getMissingRanges(window);
+        if (!missingRanges.isEmpty() && HistoricalBarStore.ENABLED) {
+            loadStoredBars(interval, cachedBars, missingRanges);
+            missingRanges = cachedBars.getMissingRanges(window);
+        }
+
+        if (missingRanges.isEmpty()) {
+            return CompletableFuture.completedFuture(cachedBars.getSeries(window));
+        }
+
+        long fetchedAt = Instant.now().getEpochSecond();
+        // Bars starting less than an interval ago may still change, so they're fetched again next time
+        long completeBefore = fetchedAt - interval.getSeconds();
+        AtomicBoolean invalidated = new AtomicBoolean();
 
+        // Windows are fetched concurrently and stitched together by the cache
+        List<CompletableFuture<Void>> fetches = new ArrayList<>();
+        for (TimeRange missingRange : splitIntoWindows(interval, missingRanges)) {
+            fetches.add(fetchDataAsync(interval, missingRange).thenAccept(chart -> {
+                long eventTime = chart.getLastEventTime(fetchedAt);
+                if (cachedBars.isFetchedBefore(eventTime)) {
+                    log.info("Dropping the cached bars of {}, fetched before its corporate event at {}",
+                            this.symbol, Instant.ofEpochSecond(eventTime));
+                    invalidate(eventTime);
+                    invalidated.set(true);
+                }
+
+                HistoricalSeries bars = chart.bars();
+                TimeRange covered = new TimeRange(missingRange.start(), Math.min(missingRange.end(), completeBefore));
+                HistoricalBarCache.add(this.symbol, interval, cachedBars, missingRange, bars, covered, fetchedAt);
+                HistoricalBarStore.writeAsync(this.symbol, interval, covered, bars.slice(covered.start(), covered.end()), fetchedAt);
+            }));
+        }
+
+        return CompletableFuture.allOf(fetches.toArray(CompletableFuture[]::new)).handle((ignored, e) -> {
+            if (e != null) {
+                // The windows that were cached or fetched are still served, rather than failing the whole window
+                log.error("Failed to fetch some bars of {}, returning the {} bars covered", this.symbol, interval.getTag(), e);
+                return CompletableFuture.completedFuture(cachedBars.getSeries(window));
+            }
+            // The windows added before the event was seen were dropped along with the older bars
+            if (invalidated.get() && !reloaded) {
+                return loadAsync(interval, window, true);
+            }
+            return CompletableFuture.completedFuture(cachedBars.getSeries(window));
+        }).thenCompose(Function.identity());
+    }
+
+    private void loadStoredBars(Interval interval, CachedBars cachedBars, List<TimeRange> missingRanges) {
+        for (TimeRange missingRange : missingRanges) {
+            for (StoredBars stored : HistoricalBarStore.read(this.symbol, interval, missingRange)) {
+                HistoricalBarCache.add(this.symbol, interval, cachedBars, stored.range(), stored.bars(), stored.range(), stored.fetchedAt());
+            }
+        }
+    }
+
+    // Drops the cached and stored bars of the symbol fetched before a corporate event
+    private void invalidate(long eventTime) {
+        HistoricalBarCache.invalidate(this.symbol, eventTime);
+        HistoricalBarStore.invalidateAsync(this.symbol, eventTime);
+    }
+
+    /**
+     * Checks that the request can be served, without sending it.
+     *
+     * @throws IllegalArgumentException if the from-date is after the to-date, or if the window goes further back
+     *                                  than upstream serves bars of the interval
+     */
+    public void validate() {
+        resolveWindow();
+    }
+
+    /**
+     * Resolves the requested window. An explicit from-date takes precedence over the range, which ends on the to-date.
+     * The max range of intervals with a lookback limit starts as far back as upstream serves their bars.
+     *
+     * @return the window
+     * @throws IllegalArgumentException if the window is invalid or can't be served for the interval
+     */
+    private TimeRange resolveWindow() {
+        LocalDate end = this.to != null ? this.to : getToday();
+        LocalDate start = this.from != null ? this.from : this.range.getStartDate(end);
+        if (this.from == null && this.range == Range.MAX && this.interval.getMaxLookbackDays() > 0) {
+            // As far back as upstream serves bars of the interval
+            start = getToday().minusDays(this.interval.getMaxLookbackDays());
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("From-date should not be after to-date. From: " + start + ", to: " + end);
+        }
+
+        if (!isWithinLookback(this.interval, start)) {
+            throw new IllegalArgumentException("Bars of the " + this.interval.getTag() + " interval are only available for the last "
+                    + this.interval.getMaxLookbackDays() + " days. Requested from: " + start);
+        }
+
+        ZoneId zone = getCalendar().getZone();
+        // The period can't start before the Unix epoch
+        return new TimeRange(
+                Math.max(0, start.atStartOfDay(zone).toEpochSecond()),
+                end.plusDays(1).atStartOfDay(zone).toEpochSecond()
+        );
+    }
+
+    /**
+     * Gets the current day on the exchange of the symbol, resolved per request so a long-running process keeps
+     * returning the latest bars.
+     *
+     * @return the current day
+     */
+    private LocalDate getToday() {
+        return LocalDate.now(getCalendar().getZone());
+    }
+
+    /**
+     * Gets the calendar of the exchange of the symbol, whose zone all the days of the request are in, so the window
+     * doesn't depend on the zone of the server.
+     *
+     * @return the calendar, counting every weekday as a trading day in UTC if the symbol has no known calendar
+     */
+    private ExchangeCalendar getCalendar() {
+        ExchangeCalendar calendar = this.symbol != null ? ExchangeCalendar.forSymbol(this.symbol) : null;
+        return calendar != null ? calendar : AROUND_THE_CLOCK;
+    }
+
+    /**
+     * Gets the start of the range holding the given number of bars before the window. Sessions are counted on the
+     * exchange calendar, so weekends and holidays aren't counted as bars.
+     *
+     * @param windowStart the start of the window, in epoch seconds
+     * @param bars        the number of bars before the window
+     * @return the start of the range, in epoch seconds
+     */
+    private long getWarmUpStart(long windowStart, int bars) {
+        if (bars <= 0) {
+            return windowStart;
+        }
+
+        ExchangeCalendar calendar = getCalendar();
+        ZoneId zone = calendar.getZone();
+        LocalDate start = Instant.ofEpochSecond(windowStart).atZone(zone).toLocalDate();
+        long barSeconds = this.interval.getSeconds();
+        LocalDate warmUpStart;
+        if (this.interval == Interval.FIVE_DAYS) {
+            warmUpStart = calendar.minusTradingDays(start, bars * 5);
+        } else if (barSeconds > Interval.ONE_DAY.getSeconds()) {
+            warmUpStart = start.minusDays(bars * (barSeconds / Interval.ONE_DAY.getSeconds()));
+        } else {
+            long sessionSeconds = Duration.between(calendar.getOpen(), calendar.getClose()).getSeconds();
+            long barsPerSession = Math.max(1, sessionSeconds / barSeconds);
+            warmUpStart = calendar.minusTradingDays(start, (int) ((bars + barsPerSession - 1) / barsPerSession));
+        }
+
+        int maxLookbackDays = this.interval.getMaxLookbackDays();
+        if (maxLookbackDays > 0) {
+            LocalDate earliest = getToday().minusDays(maxLookbackDays - 1);
+            if (warmUpStart.isBefore(earliest)) {
+                warmUpStart = earliest;
+            }
+        }
+        return Math.min(windowStart, warmUpStart.atStartOfDay(zone).toEpochSecond());
+    }
+
+    // Whether upstream serves bars of the interval as far back as the given day
+    private boolean isWithinLookback(Interval interval, LocalDate start) {
+        int maxLookbackDays = interval.getMaxLookbackDays();
+        return maxLookbackDays == 0 || !start.isBefore(getToday().minusDays(maxLookbackDays));
+    }
+
+    /**
+     * Splits the missing ranges into windows upstream serves in a single request.
+     *
+     * @param interval      the interval of the bars
+     * @param missingRanges the missing ranges
+     * @return the windows to fetch
+     */
+    private static List<TimeRange> splitIntoWindows(Interval interval, List<TimeRange> missingRanges) {
+        long maxSpan = interval.getMaxDaysPerRequest() * Interval.ONE_DAY.getSeconds();
+        if (maxSpan == 0) {
+            return missingRanges;
+        }
+
+        List<TimeRange> windows = new ArrayList<>();
+        for (TimeRange missingRange : missingRanges) {
+            for (long start = missingRange.start(); start < missingRange.end(); start += maxSpan) {
+                windows.add(new TimeRange(start, Math.min(start + maxSpan, missingRange.end())));
+            }
+        }
+        return windows;
+    }
+
+    private CompletableFuture<ChartResponseParser.Chart> fetchDataAsync(Interval interval, TimeRange period) {
+        // The range isn't sent, as Yahoo would return the whole range instead of the requested period
         Map<String, String> params = new LinkedHashMap<>();
-        params.put("period1", String.valueOf(this.from.atStartOfDay(ZoneId.systemDefault()).toEpochSecond()));
-        params.put("period2", String.valueOf(this.to.atStartOfDay(ZoneId.systemDefault()).toEpochSecond()));
-        params.put("interval", this.interval.getTag());
-        params.put("range", this.range.getTag());
+        params.put("period1", String.valueOf(period.start()));
+        params.put("period2", String.valueOf(period.end()));
+        params.put("interval", interval.getTag());
+        // Events are only read to tell when the past bars were rewritten
+        params.put("events", "div|split");
         params.put("crumb", YahooCredentials.getCrumb());
 
         String url = YahooConstants.HISTQUOTES_QUERY2V8_BASE_URL + URLEncoder.encode(this.symbol, StandardCharsets.UTF_8) + "?" + Utils.buildUrlParameters(params);
@@ -116,13 +486,19 @@ public class HistoricalQuotesRequest {
                 .header("Accept", "application/json")
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return ConcurrencyLimiter.forHost(request.uri().getHost())
+                .submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new CompletionException(new IOException("Failed to fetch data: HTTP status code " + response.statusCode()));
+                    }
 
-        if (response.statusCode() == 200) {
-            log.info("Parsing JSON response: {}", response.body());
-            return objectMapper.readTree(response.body());
-        } else {
-            throw new IOException("Failed to fetch data: HTTP status code " + response.statusCode());
-        }
+                    log.debug("Parsing JSON response of {} bytes", response.body().length);
+                    try {
+                        return ChartResponseParser.parse(response.body());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
     }
 }
@@ -0,0 +1,231 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.adjust;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Back-adjusted prices of a series of unadjusted bars, computed from the corporate events of the symbol.
+ * <p>
+ * Each bar keeps the product of the factors of the events after it, so the raw bars are never changed, and an
+ * event only rescales the bars before its ex-date. A cash event of {@code D} per share, whose last date prior
+ * closed at {@code P}, has the factor {@code 1 - D / P}. A share event turning each share into {@code m} shares
+ * divides the prices by {@code m} and multiplies the volumes by it.
+ * </p>
+ * <p>
+ * Upstream prices are already split-adjusted, in which case share events don't change the prices, but the cash
+ * amounts paid before them are divided by {@code m} to match the adjusted prices.
+ * </p>
+ */
+@Slf4j
+public final class AdjustedSeries {
+
+    // Share events are applied before the cash events of the same day, which are paid on the shares before them
+    private static final Comparator<CorporateEvent> LATEST_FIRST = Comparator
+            .comparing(CorporateEvent::lastDatePrior)
+            .thenComparing(event -> event.kind() == CorporateEvent.Kind.SHARES)
+            .reversed();
+
+    private final HistoricalSeries raw;
+    private final ZoneId zone;
+    private final boolean splitAdjusted;
+
+    private final double[] priceFactors;
+    private final double[] volumeFactors;
+    // Keyed by source, as distinct events may have the same date, kind and value
+    private final Map<String, CorporateEvent> applied = new HashMap<>();
+
+    private HistoricalSeries adjusted;
+
+    private AdjustedSeries(HistoricalSeries raw, ZoneId zone, boolean splitAdjusted) {
+        this.raw = raw;
+        this.zone = zone;
+        this.splitAdjusted = splitAdjusted;
+        this.priceFactors = new double[raw.size()];
+        this.volumeFactors = new double[raw.size()];
+    }
+
+    /**
+     * Adjusts a series for the given events, in a single pass over the bars.
+     *
+     * @param raw           the unadjusted bars
+     * @param events        the corporate events of the symbol
+     * @param zone          the time zone of the exchange, in which the dates of the events are
+     * @param splitAdjusted whether the bars are already adjusted for the share events
+     * @return the adjusted series
+     */
+    public static AdjustedSeries of(HistoricalSeries raw, List<CorporateEvent> events, ZoneId zone, boolean splitAdjusted) {
+        AdjustedSeries series = new AdjustedSeries(raw, zone, splitAdjusted);
+        series.adjustAll(events);
+        return series;
+    }
+
+    public HistoricalSeries getRaw() {
+        return raw;
+    }
+
+    private void adjustAll(List<CorporateEvent> events) {
+        List<CorporateEvent> sorted = new ArrayList<>(events);
+        sorted.sort(LATEST_FIRST);
+
+        int end = raw.size();
+        double priceFactor = 1;
+        double volumeFactor = 1;
+        double sharesAfter = 1;
+
+        for (CorporateEvent event : sorted) {
+            int index = indexAfter(event);
+            if (index < 0 || applied.containsKey(event.source())) {
+                continue;
+            }
+
+            // The bars from the ex-date onwards only depend on the later events
+            int from = Math.min(index, end);
+            Arrays.fill(priceFactors, from, end, priceFactor);
+            Arrays.fill(volumeFactors, from, end, volumeFactor);
+            end = from;
+
+            if (event.kind() == CorporateEvent.Kind.SHARES) {
+                sharesAfter *= event.value();
+            }
+            priceFactor *= getPriceFactor(event, index, sharesAfter);
+            volumeFactor *= getVolumeFactor(event);
+            applied.put(event.source(), event);
+        }
+
+        Arrays.fill(priceFactors, 0, end, priceFactor);
+        Arrays.fill(volumeFactors, 0, end, volumeFactor);
+    }
+
+    /**
+     * Applies the given events, rescaling only the bars before the ex-date of the events that weren't applied yet.
+     *
+     * @param events the corporate events of the symbol
+     * @return false if the series must be adjusted again from scratch, when a share event precedes cash events
+     * of split-adjusted bars which were already applied
+     */
+    public synchronized boolean apply(List<CorporateEvent> events) {
+        for (CorporateEvent event : events) {
+            if (!apply(event)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies an event, rescaling only the bars before its ex-date.
+     *
+     * @param event the corporate event
+     * @return false if the series must be adjusted again from scratch
+     */
+    public synchronized boolean apply(CorporateEvent event) {
+        if (applied.containsKey(event.source())) {
+            return true;
+        }
+
+        int index = indexAfter(event);
+        if (index < 0) {
+            return true; // Applied once the bars up to its last date prior are loaded
+        }
+
+        double sharesAfter = 1;
+        for (CorporateEvent other : applied.values()) {
+            if (other.kind() == CorporateEvent.Kind.SHARES && !other.lastDatePrior().isBefore(event.lastDatePrior())) {
+                sharesAfter *= other.value();
+            } else if (splitAdjusted && event.kind() == CorporateEvent.Kind.SHARES && other.kind() == CorporateEvent.Kind.CASH
+                    && !other.lastDatePrior().isAfter(event.lastDatePrior())) {
+                return false; // The cash amounts of the earlier events were scaled without this event
+            }
+        }
+        if (event.kind() == CorporateEvent.Kind.SHARES) {
+            sharesAfter *= event.value();
+        }
+
+        double priceFactor = getPriceFactor(event, index, sharesAfter);
+        double volumeFactor = getVolumeFactor(event);
+        for (int i = 0; i < index; i++) {
+            priceFactors[i] *= priceFactor;
+            volumeFactors[i] *= volumeFactor;
+        }
+
+        applied.put(event.source(), event);
+        adjusted = null;
+        return true;
+    }
+
+    /**
+     * Gets the adjusted bars. The adjusted close is the same as the close.
+     *
+     * @return the adjusted series
+     */
+    public synchronized HistoricalSeries toSeries() {
+        if (adjusted == null) {
+            HistoricalSeries.Builder builder = HistoricalSeries.builder(raw.size());
+            for (int i = 0; i < raw.size(); i++) {
+                double factor = priceFactors[i];
+                double close = raw.getClose(i) * factor;
+                long volume = raw.getVolume(i);
+                builder.add(
+                        raw.getTimestamp(i),
+                        raw.getOpen(i) * factor,
+                        raw.getHigh(i) * factor,
+                        raw.getLow(i) * factor,
+                        close,
+                        close,
+                        volume == HistoricalSeries.MISSING_VOLUME ? volume : Math.round(volume * volumeFactors[i])
+                );
+            }
+            adjusted = builder.build();
+        }
+        return adjusted;
+    }
+
+    /**
+     * Gets the index of the first bar from the ex-date of an event, i.e. the number of bars it rescales.
+     *
+     * @param event the corporate event
+     * @return the index, or -1 if the event can't be applied yet, when it's a cash event after the last bar
+     */
+    private int indexAfter(CorporateEvent event) {
+        long exDate = event.lastDatePrior().plusDays(1).atStartOfDay(zone).toEpochSecond();
+        int index = raw.indexOf(exDate);
+
+        if (event.kind() == CorporateEvent.Kind.CASH && index == raw.size()) {
+            // The factor depends on the close of the last date prior, which isn't loaded yet
+            long lastDatePrior = event.lastDatePrior().atStartOfDay(zone).toEpochSecond();
+            if (index == 0 || raw.getTimestamp(index - 1) < lastDatePrior) {
+                return -1;
+            }
+        }
+        return index;
+    }
+
+    private double getPriceFactor(CorporateEvent event, int index, double sharesAfter) {
+        if (event.kind() == CorporateEvent.Kind.SHARES) {
+            return splitAdjusted ? 1 : 1 / event.value();
+        }
+        if (index == 0) {
+            return 1; // No bars before the ex-date
+        }
+
+        double amount = splitAdjusted ? event.value() / sharesAfter : event.value();
+        double factor = 1 - amount / raw.getClose(index - 1);
+        if (!(factor > 0 && factor < 1)) {
+            log.debug("Ignoring cash event {}, as it's not below the close of {}", event, raw.getClose(index - 1));
+            return 1;
+        }
+        return factor;
+    }
+
+    private double getVolumeFactor(CorporateEvent event) {
+        return event.kind() == CorporateEvent.Kind.SHARES && !splitAdjusted ? event.value() : 1;
+    }
+}
@@ -0,0 +1,116 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.adjust;
+
+import dev.jaoow.cotatrack.api.requests.dividends.ShareClass;
+import dev.jaoow.cotatrack.api.requests.dividends.model.CashDividend;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import dev.jaoow.cotatrack.api.requests.dividends.model.StockDividend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Corporate event the historical prices are adjusted for.
+ *
+ * @param lastDatePrior the last day the shares traded with the right to the event, the day before the ex-date
+ * @param kind          the kind of the event
+ * @param value         the amount paid per share for a cash event, or the number of shares each share becomes
+ *                      for a share event
+ * @param source        the identity of the B3 entry the event comes from, so events with the same date, kind and
+ *                      value, such as a dividend and an interest on equity, are told apart
+ */
+public record CorporateEvent(LocalDate lastDatePrior, Kind kind, double value, String source) {
+
+    public enum Kind {
+        /**
+         * Dividends, interest on equity and other cash distributions.
+         */
+        CASH,
+        /**
+         * Splits, reverse splits and stock dividends, which change the number of shares.
+         */
+        SHARES
+    }
+
+    /**
+     * Gets the events of a symbol from the B3 dividends data, skipping the incomplete entries.
+     * <p>
+     * B3 lists the events of every share class of the company, so only the entries of the class of the symbol are
+     * kept when it can be told from the ISIN code.
+     * </p>
+     *
+     * @param dividends the dividends data
+     * @param symbol    the symbol, e.g. PETR4.SA
+     * @return the events, sorted by date
+     */
+    public static List<CorporateEvent> fromDividends(DividendsData dividends, String symbol) {
+        List<CorporateEvent> events = new ArrayList<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+
+        if (dividends.getCashDividends() != null) {
+            for (CashDividend dividend : dividends.getCashDividends()) {
+                BigDecimal rate = dividend.getRate();
+                if (ShareClass.matches(dividend.getAssetIssued(), symbol) && dividend.getLastDatePrior() != null
+                        && rate != null && rate.signum() > 0) {
+                    String source = getSource(occurrences, dividend.getIsinCode(), dividend.getLabel(), dividend.getApprovedOn(), dividend.getLastDatePrior());
+                    events.add(new CorporateEvent(dividend.getLastDatePrior(), Kind.CASH, rate.doubleValue(), source));
+                }
+            }
+        }
+
+        if (dividends.getStockDividends() != null) {
+            for (StockDividend dividend : dividends.getStockDividends()) {
+                BigDecimal factor = dividend.getFactor();
+                if (!ShareClass.matches(dividend.getAssetIssued(), symbol) || dividend.getLastDatePrior() == null || factor == null) {
+                    continue;
+                }
+
+                double shares = getShareMultiplier(dividend.getLabel(), factor.doubleValue());
+                if (shares > 0 && shares != 1) {
+                    String source = getSource(occurrences, dividend.getIsinCode(), dividend.getLabel(), dividend.getApprovedOn(), dividend.getLastDatePrior());
+                    events.add(new CorporateEvent(dividend.getLastDatePrior(), Kind.SHARES, shares, source));
+                }
+            }
+        }
+
+        events.sort(Comparator.comparing(CorporateEvent::lastDatePrior));
+        return events;
+    }
+
+    /**
+     * Gets the identity of a B3 entry. Entries with the same fields are numbered in the order they're listed in.
+     *
+     * @param occurrences the number of entries seen so far per identity
+     * @return the identity, e.g. BRPETRACNPR6:DIVIDENDO:2024-05-13:2024-06-03#0
+     */
+    private static String getSource(Map<String, Integer> occurrences, String isinCode, String label,
+                                    LocalDate approvedOn, LocalDate lastDatePrior) {
+        String key = isinCode + ":" + label + ":" + approvedOn + ":" + lastDatePrior;
+        return key + "#" + (occurrences.merge(key, 1, Integer::sum) - 1);
+    }
+
+    /**
+     * Gets the number of shares each share becomes. B3 publishes splits and stock dividends as the percentage of
+     * new shares, and reverse splits as the number of shares each share becomes.
+     *
+     * @param label  the label of the event, e.g. DESDOBRAMENTO
+     * @param factor the factor of the event
+     * @return the share multiplier, or NaN if the event doesn't change the number of shares
+     */
+    private static double getShareMultiplier(String label, double factor) {
+        String normalized = label != null ? label.toUpperCase(Locale.ROOT) : "";
+        if (normalized.startsWith("GRUPAMENTO")) {
+            // The factor is sometimes sent as the number of shares that become one
+            return factor < 1 ? factor : 1 / factor;
+        }
+        if (normalized.startsWith("DESDOBRAMENTO") || normalized.startsWith("BONIFICACAO")) {
+            return 1 + factor / 100;
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,56 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.adjust;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.jaoow.cotatrack.api.market.ExchangeCalendar;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.HistoricalBarCache;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Keeps the adjusted series of the cached bars, per symbol and interval.
+ * <p>
+ * While the cached bars don't change, new events only rescale the bars before them. Once bars are added, the
+ * series is adjusted again in a single pass. Upstream bars are split-adjusted, so share events only scale the
+ * cash amounts paid before them.
+ * </p>
+ */
+public class PriceAdjuster {
+
+    public static final long MAX_ADJUSTED_BARS = Long.getLong("cotatrack.historical.maxAdjustedBars", 500_000);
+
+    private static final Cache<String, AdjustedSeries> cache = Caffeine.newBuilder()
+            .maximumWeight(MAX_ADJUSTED_BARS)
+            .weigher((String key, AdjustedSeries series) -> Math.max(1, series.getRaw().size()))
+            .expireAfterAccess(HistoricalBarCache.EXPIRE_AFTER_ACCESS)
+            .build();
+
+    /**
+     * Adjusts the bars of a symbol for its corporate events.
+     *
+     * @param symbol   the symbol
+     * @param interval the interval of the bars
+     * @param raw      the unadjusted bars, usually all the cached bars of the symbol and interval
+     * @param events   the corporate events of the symbol
+     * @return the adjusted series
+     */
+    public static AdjustedSeries adjust(String symbol, Interval interval, HistoricalSeries raw, List<CorporateEvent> events) {
+        String key = symbol.toUpperCase() + ":" + interval.getTag();
+
+        AdjustedSeries cached = cache.getIfPresent(key);
+        if (cached != null && cached.getRaw() == raw && cached.apply(events)) {
+            return cached;
+        }
+
+        ExchangeCalendar calendar = ExchangeCalendar.forSymbol(symbol);
+        ZoneId zone = calendar != null ? calendar.getZone() : ZoneId.systemDefault();
+
+        // The cached bars fetched before a share event are dropped once it's seen, so all of them are split-adjusted
+        AdjustedSeries adjusted = AdjustedSeries.of(raw, events, zone, true);
+        cache.put(key, adjusted);
+        return adjusted;
+    }
+}
@@ -0,0 +1,149 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.cache;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Bars of a symbol and interval fetched so far, along with the time ranges they cover.
+ * <p>
+ * A covered range was fully fetched, so a range without bars (e.g. a weekend or a holiday) isn't requested again.
+ * </p>
+ * <p>
+ * Yahoo rewrites the past bars on corporate events: their close on splits and their adjusted close on dividends.
+ * The fetch time of the oldest bars is kept, so bars fetched before an event can be told apart and dropped.
+ * </p>
+ */
+public final class CachedBars {
+
+    // Start to end of the covered ranges, in epoch seconds. Ranges don't overlap and aren't adjacent.
+    private final NavigableMap<Long, Long> coverage = new TreeMap<>();
+
+    private HistoricalSeries series = HistoricalSeries.EMPTY;
+
+    // Fetch time of the oldest bars, in epoch seconds
+    private long fetchedSince = Long.MAX_VALUE;
+
+    // Bars fetched before this time are on an older price basis, so they're not added anymore
+    private long validSince = Long.MIN_VALUE;
+
+    public synchronized int size() {
+        return series.size();
+    }
+
+    /**
+     * Gets all the cached bars. The same instance is returned until bars are added.
+     *
+     * @return the cached bars
+     */
+    public synchronized HistoricalSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * Gets the cached bars within the given range.
+     *
+     * @param range the time range
+     * @return the bars within the range
+     */
+    public synchronized HistoricalSeries getSeries(TimeRange range) {
+        return series.slice(range.start(), range.end());
+    }
+
+    /**
+     * Checks whether any of the bars was fetched before the given corporate event, so its prices are on an older
+     * basis than the bars fetched since.
+     *
+     * @param eventTime the time the event took effect, in epoch seconds
+     * @return true if the bars should be dropped
+     */
+    public synchronized boolean isFetchedBefore(long eventTime) {
+        return fetchedSince < eventTime;
+    }
+
+    /**
+     * Gets the parts of the given range that aren't covered yet, in chronological order.
+     *
+     * @param range the time range
+     * @return the missing ranges, empty if the range is fully covered
+     */
+    public synchronized List<TimeRange> getMissingRanges(TimeRange range) {
+        List<TimeRange> missing = new ArrayList<>();
+
+        long cursor = range.start();
+        Map.Entry<Long, Long> floor = coverage.floorEntry(cursor);
+        if (floor != null) {
+            cursor = Math.max(cursor, floor.getValue());
+        }
+
+        for (Map.Entry<Long, Long> covered : coverage.subMap(range.start(), false, range.end(), false).entrySet()) {
+            if (covered.getKey() > cursor) {
+                missing.add(new TimeRange(cursor, covered.getKey()));
+            }
+            cursor = Math.max(cursor, covered.getValue());
+        }
+
+        if (cursor < range.end()) {
+            missing.add(new TimeRange(cursor, range.end()));
+        }
+        return missing;
+    }
+
+    /**
+     * Adds the bars fetched for a range, replacing the cached bars within that range.
+     * Bars fetched before the last {@link #clear(long)} are ignored.
+     *
+     * @param fetched   the fetched range
+     * @param bars      the fetched bars
+     * @param covered   the part of the range known to be complete, or null if all the bars may still change
+     * @param fetchedAt when the bars were fetched, in epoch seconds
+     */
+    public synchronized void add(TimeRange fetched, HistoricalSeries bars, TimeRange covered, long fetchedAt) {
+        if (fetchedAt < validSince) {
+            return;
+        }
+
+        HistoricalSeries before = series.slice(Long.MIN_VALUE, fetched.start());
+        HistoricalSeries after = series.slice(fetched.end(), Long.MAX_VALUE);
+        series = before.merge(bars.slice(fetched.start(), fetched.end())).merge(after);
+        fetchedSince = Math.min(fetchedSince, fetchedAt);
+
+        if (covered != null && covered.start() < covered.end()) {
+            addCoverage(covered.start(), covered.end());
+        }
+    }
+
+    /**
+     * Drops all the bars, as a corporate event changed the price basis of the bars fetched before it.
+     *
+     * @param eventTime the time the event took effect, in epoch seconds
+     */
+    public synchronized void clear(long eventTime) {
+        series = HistoricalSeries.EMPTY;
+        coverage.clear();
+        fetchedSince = Long.MAX_VALUE;
+        validSince = Math.max(validSince, eventTime);
+    }
+
+    private void addCoverage(long start, long end) {
+        Map.Entry<Long, Long> floor = coverage.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            start = floor.getKey();
+            end = Math.max(end, floor.getValue());
+        }
+
+        // Absorb the ranges that overlap or touch the new one
+        Iterator<Map.Entry<Long, Long>> iterator = coverage.subMap(start, true, end, true).entrySet().iterator();
+        while (iterator.hasNext()) {
+            end = Math.max(end, iterator.next().getValue());
+            iterator.remove();
+        }
+
+        coverage.put(start, end);
+    }
+}
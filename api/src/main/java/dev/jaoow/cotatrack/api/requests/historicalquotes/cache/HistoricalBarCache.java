@@ -0,0 +1,89 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-memory cache of the historical bars, per symbol and interval.
+ * The cache is bounded by the total number of bars, so a few long series don't exhaust the memory.
+ */
+public class HistoricalBarCache {
+
+    public static final long MAX_CACHED_BARS = Long.getLong("cotatrack.historical.maxCachedBars", 2_000_000);
+    public static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(Long.getLong("cotatrack.historical.expireAfterAccessMinutes", 24 * 60));
+
+    private static final Cache<String, CachedBars> cache = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_BARS)
+            .weigher((String key, CachedBars bars) -> Math.max(1, bars.size()))
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .build();
+
+    /**
+     * Gets the cached bars of the given symbol and interval, creating an empty entry if there's none.
+     *
+     * @param symbol   the symbol
+     * @param interval the interval of the bars
+     * @return the cached bars
+     */
+    public static CachedBars get(String symbol, Interval interval) {
+        return cache.get(cacheKey(symbol, interval), key -> new CachedBars());
+    }
+
+    /**
+     * Gets the parts of the given range that aren't cached, without creating an entry.
+     *
+     * @param symbol   the symbol
+     * @param interval the interval of the bars
+     * @param range    the time range
+     * @return the missing ranges
+     */
+    public static List<TimeRange> getMissingRanges(String symbol, Interval interval, TimeRange range) {
+        CachedBars bars = cache.getIfPresent(cacheKey(symbol, interval));
+        return bars != null ? bars.getMissingRanges(range) : List.of(range);
+    }
+
+    /**
+     * Adds fetched bars to the cache.
+     *
+     * @param symbol    the symbol
+     * @param interval  the interval of the bars
+     * @param bars      the cached bars of the symbol, as returned by {@link #get(String, Interval)}
+     * @param fetched   the fetched range
+     * @param series    the fetched bars
+     * @param covered   the part of the range known to be complete, or null if all the bars may still change
+     * @param fetchedAt when the bars were fetched, in epoch seconds
+     */
+    public static void add(String symbol, Interval interval, CachedBars bars,
+                           TimeRange fetched, HistoricalSeries series, TimeRange covered, long fetchedAt) {
+        bars.add(fetched, series, covered, fetchedAt);
+        // Put the entry again so its weight is updated
+        cache.put(cacheKey(symbol, interval), bars);
+    }
+
+    /**
+     * Drops the cached bars of a symbol, of every interval, after a corporate event changed their price basis.
+     * The entries are cleared rather than removed, so fetches in flight can't add bars from before the event.
+     *
+     * @param symbol    the symbol
+     * @param eventTime the time the event took effect, in epoch seconds
+     */
+    public static void invalidate(String symbol, long eventTime) {
+        for (Interval interval : Interval.values()) {
+            String key = cacheKey(symbol, interval);
+            CachedBars bars = cache.getIfPresent(key);
+            if (bars != null) {
+                bars.clear(eventTime);
+                cache.put(key, bars);
+            }
+        }
+    }
+
+    private static String cacheKey(String symbol, Interval interval) {
+        return symbol.toUpperCase() + ":" + interval.getTag();
+    }
+}
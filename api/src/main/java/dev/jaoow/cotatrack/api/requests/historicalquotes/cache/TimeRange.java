@@ -0,0 +1,10 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.cache;
+
+/**
+ * Range of time, in epoch seconds.
+ *
+ * @param start the start of the range (inclusive)
+ * @param end   the end of the range (exclusive)
+ */
+public record TimeRange(long start, long end) {
+}
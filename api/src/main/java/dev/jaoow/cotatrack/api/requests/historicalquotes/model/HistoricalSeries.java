@@ -0,0 +1,326 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact, immutable series of historical quotes, stored column by column in primitive arrays.
+ * <p>
+ * Bars are sorted by timestamp. Prices missing upstream are stored as {@link Double#NaN} and missing volumes
+ * as {@link #MISSING_VOLUME}.
+ * {@link #asList()} exposes the series as {@link HistoricalQuote} objects, which are only created when accessed.
+ * </p>
+ */
+public final class HistoricalSeries implements Iterable<HistoricalQuote> {
+
+    public static final long MISSING_VOLUME = Long.MIN_VALUE;
+
+    public static final HistoricalSeries EMPTY = new Builder(0).build();
+
+    private final long[] timestamps;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] adjClose;
+    private final long[] volume;
+    private final int size;
+
+    private HistoricalSeries(long[] timestamps, double[] open, double[] high, double[] low,
+                             double[] close, double[] adjClose, long[] volume, int size) {
+        this.timestamps = timestamps;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.adjClose = adjClose;
+        this.volume = volume;
+        this.size = size;
+    }
+
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double getOpen(int index) {
+        return open[index];
+    }
+
+    public double getHigh(int index) {
+        return high[index];
+    }
+
+    public double getLow(int index) {
+        return low[index];
+    }
+
+    public double getClose(int index) {
+        return close[index];
+    }
+
+    public double getAdjClose(int index) {
+        return adjClose[index];
+    }
+
+    public long getVolume(int index) {
+        return volume[index];
+    }
+
+    /**
+     * Gets the bars whose timestamp is within the given range.
+     *
+     * @param start the start of the range, in epoch seconds (inclusive)
+     * @param end   the end of the range, in epoch seconds (exclusive)
+     * @return the bars within the range
+     */
+    public HistoricalSeries slice(long start, long end) {
+        int fromIndex = indexOf(start);
+        int toIndex = indexOf(end);
+        if (fromIndex == 0 && toIndex == size) {
+            return this;
+        }
+
+        Builder builder = new Builder(Math.max(toIndex - fromIndex, 0));
+        for (int i = fromIndex; i < toIndex; i++) {
+            builder.add(timestamps[i], open[i], high[i], low[i], close[i], adjClose[i], volume[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Merges this series with another one, keeping the timestamp order.
+     * When both series have a bar with the same timestamp, the bar of the other series is kept.
+     *
+     * @param other the series to merge, usually fetched after this one
+     * @return the merged series
+     */
+    public HistoricalSeries merge(HistoricalSeries other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+
+        Builder builder = new Builder(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && timestamps[i] < other.timestamps[j])) {
+                builder.add(timestamps[i], open[i], high[i], low[i], close[i], adjClose[i], volume[i]);
+                i++;
+            } else {
+                if (i < size && timestamps[i] == other.timestamps[j]) {
+                    i++; // Replaced by the newer bar
+                }
+                builder.add(other.timestamps[j], other.open[j], other.high[j], other.low[j], other.close[j], other.adjClose[j], other.volume[j]);
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets the index of the first bar at or after the given timestamp.
+     *
+     * @param timestamp the timestamp, in epoch seconds
+     * @return the index of the bar, or the size of the series if all the bars are before the timestamp
+     */
+    public int indexOf(long timestamp) {
+        int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Creates the historical quote of a bar.
+     *
+     * @param index the index of the bar
+     * @return the historical quote
+     */
+    public HistoricalQuote get(int index) {
+        return new HistoricalQuote(
+                timestamps[index],
+                toDecimal(open[index]),
+                toDecimal(low[index]),
+                toDecimal(high[index]),
+                toDecimal(close[index]),
+                toDecimal(adjClose[index]),
+                volume[index] == MISSING_VOLUME ? null : volume[index]
+        );
+    }
+
+    /**
+     * Gets a read-only list view of this series. The view is serialized straight from the primitive arrays.
+     *
+     * @return the list of historical quotes
+     */
+    public List<HistoricalQuote> asList() {
+        return new QuoteList(this);
+    }
+
+    @Override
+    public Iterator<HistoricalQuote> iterator() {
+        return asList().iterator();
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+    }
+
+    /**
+     * Builds a series, appending the bars in timestamp order.
+     */
+    public static final class Builder {
+
+        private long[] timestamps;
+        private double[] open;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private double[] adjClose;
+        private long[] volume;
+        private int size;
+
+        private Builder(int capacity) {
+            capacity = Math.max(capacity, 0);
+            this.timestamps = new long[capacity];
+            this.open = new double[capacity];
+            this.high = new double[capacity];
+            this.low = new double[capacity];
+            this.close = new double[capacity];
+            this.adjClose = new double[capacity];
+            this.volume = new long[capacity];
+        }
+
+        public Builder add(long timestamp, double open, double high, double low, double close, double adjClose, long volume) {
+            if (size == timestamps.length) {
+                grow();
+            }
+
+            this.timestamps[size] = timestamp;
+            this.open[size] = open;
+            this.high[size] = high;
+            this.low[size] = low;
+            this.close[size] = close;
+            this.adjClose[size] = adjClose;
+            this.volume[size] = volume;
+            size++;
+            return this;
+        }
+
+        private void grow() {
+            int capacity = Math.max(16, timestamps.length * 2);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            adjClose = Arrays.copyOf(adjClose, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+
+        public HistoricalSeries build() {
+            // Trim the arrays, as the series is kept in caches
+            return new HistoricalSeries(
+                    Arrays.copyOf(timestamps, size),
+                    Arrays.copyOf(open, size),
+                    Arrays.copyOf(high, size),
+                    Arrays.copyOf(low, size),
+                    Arrays.copyOf(close, size),
+                    Arrays.copyOf(adjClose, size),
+                    Arrays.copyOf(volume, size),
+                    size
+            );
+        }
+    }
+
+    /**
+     * List view of a series, keeping the list API of the historical quotes.
+     */
+    @JsonSerialize(using = QuoteListSerializer.class)
+    public static final class QuoteList extends AbstractList<HistoricalQuote> implements RandomAccess {
+
+        private final HistoricalSeries series;
+
+        private QuoteList(HistoricalSeries series) {
+            this.series = series;
+        }
+
+        public HistoricalSeries getSeries() {
+            return series;
+        }
+
+        @Override
+        public HistoricalQuote get(int index) {
+            if (index < 0 || index >= series.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + series.size);
+            }
+            return series.get(index);
+        }
+
+        @Override
+        public int size() {
+            return series.size;
+        }
+    }
+
+    /**
+     * Writes the historical quotes of a series without creating an object per bar.
+     * The output is the same as serializing each {@link HistoricalQuote}, with missing values written as null.
+     */
+    public static final class QuoteListSerializer extends JsonSerializer<QuoteList> {
+
+        @Override
+        public void serialize(QuoteList list, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            HistoricalSeries series = list.series;
+
+            generator.writeStartArray(list, series.size);
+            for (int i = 0; i < series.size; i++) {
+                generator.writeStartObject();
+                generator.writeNumberField("date", series.timestamps[i]);
+                writePrice(generator, "open", series.open[i]);
+                writePrice(generator, "low", series.low[i]);
+                writePrice(generator, "high", series.high[i]);
+                writePrice(generator, "close", series.close[i]);
+                writePrice(generator, "adjClose", series.adjClose[i]);
+                if (series.volume[i] == MISSING_VOLUME) {
+                    generator.writeNullField("volume");
+                } else {
+                    generator.writeNumberField("volume", series.volume[i]);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        private static void writePrice(JsonGenerator generator, String field, double value) throws IOException {
+            if (Double.isNaN(value)) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeNumberField(field, value);
+            }
+        }
+    }
+}
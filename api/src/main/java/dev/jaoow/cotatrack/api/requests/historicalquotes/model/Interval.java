@@ -11,22 +11,48 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public enum Interval {
 
-    ONE_MINUTE("1m"),
-    TWO_MINUTES("2m"),
-    FIVE_MINUTES("5m"),
-    FIFTEEN_MINUTES("15m"),
-    THIRTY_MINUTES("30m"),
-    SIXTY_MINUTES("60m"),
-    NINETY_MINUTES("90m"),
-    ONE_HOUR("1h"),
-    ONE_DAY("1d"),
-    FIVE_DAYS("5d"),
-    ONE_WEEK("1wk"),
-    ONE_MONTH("1mo"),
-    THREE_MONTHS("3mo");
+    ONE_MINUTE("1m", 60),
+    TWO_MINUTES("2m", 2 * 60),
+    FIVE_MINUTES("5m", 5 * 60),
+    FIFTEEN_MINUTES("15m", 15 * 60),
+    THIRTY_MINUTES("30m", 30 * 60),
+    SIXTY_MINUTES("60m", 60 * 60),
+    NINETY_MINUTES("90m", 90 * 60),
+    ONE_HOUR("1h", 60 * 60),
+    ONE_DAY("1d", 24 * 60 * 60),
+    FIVE_DAYS("5d", 5 * 24 * 60 * 60),
+    ONE_WEEK("1wk", 7 * 24 * 60 * 60),
+    ONE_MONTH("1mo", 31 * 24 * 60 * 60),
+    THREE_MONTHS("3mo", 92 * 24 * 60 * 60);
 
     private final String tag;
 
+    // Maximum length of a bar, in seconds
+    private final long seconds;
+
+    /**
+     * Gets how many days back upstream serves bars of this interval.
+     *
+     * @return the maximum lookback in days, or 0 if the whole history is available
+     */
+    public int getMaxLookbackDays() {
+        return switch (this) {
+            case ONE_MINUTE -> 30;
+            case TWO_MINUTES, FIVE_MINUTES, FIFTEEN_MINUTES, THIRTY_MINUTES, NINETY_MINUTES -> 60;
+            case SIXTY_MINUTES, ONE_HOUR -> 730;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Gets how many days of bars of this interval upstream serves in a single request.
+     *
+     * @return the maximum span of a request in days, or 0 if there's no limit
+     */
+    public int getMaxDaysPerRequest() {
+        return this == ONE_MINUTE ? 7 : 0;
+    }
+
     public static Interval fromTag(String tag) {
         for (Interval interval : values()) {
             if (interval.getTag().equals(tag)) {
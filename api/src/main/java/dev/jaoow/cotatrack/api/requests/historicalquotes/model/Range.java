@@ -3,6 +3,8 @@ package dev.jaoow.cotatrack.api.requests.historicalquotes.model;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
+
 /**
  * Represents the range of the historical quotes.
  * I.g: to fetch the historical quotes of a stock for the last 5 days, you would use the FIVE_DAYS range.
@@ -23,8 +25,33 @@ public enum Range {
     YEAR_TO_DATE("ytd"),
     MAX("max");
 
+    // Earliest day requested for the MAX range, the Unix epoch, as upstream takes the start in epoch seconds
+    private static final LocalDate MAX_START_DATE = LocalDate.of(1970, 1, 1);
+
     private final String tag;
 
+    /**
+     * Gets the first day covered by this range when it ends on the given day.
+     *
+     * @param end the last day of the range
+     * @return the first day of the range
+     */
+    public LocalDate getStartDate(LocalDate end) {
+        return switch (this) {
+            case ONE_DAY -> end;
+            case FIVE_DAYS -> end.minusDays(6); // Five trading days in a regular week
+            case ONE_MONTH -> end.minusMonths(1);
+            case THREE_MONTHS -> end.minusMonths(3);
+            case SIX_MONTHS -> end.minusMonths(6);
+            case ONE_YEAR -> end.minusYears(1);
+            case TWO_YEARS -> end.minusYears(2);
+            case FIVE_YEARS -> end.minusYears(5);
+            case TEN_YEARS -> end.minusYears(10);
+            case YEAR_TO_DATE -> end.withDayOfYear(1);
+            case MAX -> MAX_START_DATE;
+        };
+    }
+
     public static Range fromTag(String tag) {
         for (Range range : values()) {
             if (range.getTag().equals(tag)) {
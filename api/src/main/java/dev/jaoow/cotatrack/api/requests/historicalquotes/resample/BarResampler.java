@@ -0,0 +1,150 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.resample;
+
+import dev.jaoow.cotatrack.api.market.ExchangeCalendar;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates bars into a coarser interval: the open of the first bar, the highest high, the lowest low,
+ * the close and adjusted close of the last bar and the sum of the volumes. Missing values are skipped.
+ * <p>
+ * Intraday buckets start at the session open of the exchange, as upstream does, and calendar buckets start on
+ * Mondays, on the first day of the month and on the first day of the quarter, in the time zone of the exchange.
+ * </p>
+ */
+public class BarResampler {
+
+    private static final long DAY = Interval.ONE_DAY.getSeconds();
+
+    /**
+     * Gets the finer intervals the given interval can be built from.
+     *
+     * @param target the interval to build
+     * @return the source intervals, empty if the interval can only be fetched
+     */
+    public static List<Interval> getSources(Interval target) {
+        List<Interval> sources = new ArrayList<>();
+        switch (target) {
+            case ONE_WEEK, ONE_MONTH -> sources.add(Interval.ONE_DAY);
+            case THREE_MONTHS -> {
+                sources.add(Interval.ONE_MONTH);
+                sources.add(Interval.ONE_DAY);
+            }
+            default -> {
+                if (target.getSeconds() < DAY) {
+                    for (Interval source : Interval.values()) {
+                        if (source != target && source.getSeconds() <= target.getSeconds()
+                                && target.getSeconds() % source.getSeconds() == 0) {
+                            sources.add(source);
+                        }
+                    }
+                }
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Aggregates bars into a coarser interval.
+     *
+     * @param bars     the bars, sorted by timestamp
+     * @param target   the interval to build, one of the intervals of {@link #getSources(Interval)}
+     * @param calendar the calendar of the exchange, or null to use UTC days
+     * @return the aggregated bars
+     */
+    public static HistoricalSeries resample(HistoricalSeries bars, Interval target, ExchangeCalendar calendar) {
+        ZoneId zone = calendar != null ? calendar.getZone() : ZoneOffset.UTC;
+        LocalTime sessionOpen = calendar != null ? calendar.getOpen() : LocalTime.MIDNIGHT;
+
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(bars.size());
+        Bucket bucket = null;
+        for (int i = 0; i < bars.size(); i++) {
+            long key = bucketOf(bars.getTimestamp(i), target, zone, sessionOpen);
+            if (bucket == null || bucket.key != key) {
+                if (bucket != null) {
+                    bucket.addTo(builder);
+                }
+                // Intraday bars are stamped with the start of the bucket, calendar bars with their first session
+                bucket = new Bucket(key, target.getSeconds() < DAY ? key : bars.getTimestamp(i));
+            }
+            bucket.add(bars, i);
+        }
+
+        if (bucket != null) {
+            bucket.addTo(builder);
+        }
+        return builder.build();
+    }
+
+    private static long bucketOf(long timestamp, Interval target, ZoneId zone, LocalTime sessionOpen) {
+        LocalDate date = Instant.ofEpochSecond(timestamp).atZone(zone).toLocalDate();
+        return switch (target) {
+            case ONE_WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toEpochDay();
+            case ONE_MONTH -> date.withDayOfMonth(1).toEpochDay();
+            case THREE_MONTHS -> date.withDayOfMonth(1).withMonth((date.getMonthValue() - 1) / 3 * 3 + 1).toEpochDay();
+            default -> {
+                long sessionStart = date.atTime(sessionOpen).atZone(zone).toEpochSecond();
+                yield sessionStart + Math.floorDiv(timestamp - sessionStart, target.getSeconds()) * target.getSeconds();
+            }
+        };
+    }
+
+    private static final class Bucket {
+
+        private final long key;
+        private final long timestamp;
+
+        private double open = Double.NaN;
+        private double high = Double.NaN;
+        private double low = Double.NaN;
+        private double close = Double.NaN;
+        private double adjClose = Double.NaN;
+        private long volume = HistoricalSeries.MISSING_VOLUME;
+
+        private Bucket(long key, long timestamp) {
+            this.key = key;
+            this.timestamp = timestamp;
+        }
+
+        private void add(HistoricalSeries bars, int index) {
+            if (Double.isNaN(open)) {
+                open = bars.getOpen(index);
+            }
+            high = max(high, bars.getHigh(index));
+            low = min(low, bars.getLow(index));
+            close = last(close, bars.getClose(index));
+            adjClose = last(adjClose, bars.getAdjClose(index));
+            if (bars.getVolume(index) != HistoricalSeries.MISSING_VOLUME) {
+                volume = (volume == HistoricalSeries.MISSING_VOLUME ? 0 : volume) + bars.getVolume(index);
+            }
+        }
+
+        private void addTo(HistoricalSeries.Builder builder) {
+            builder.add(timestamp, open, high, low, close, adjClose, volume);
+        }
+
+        // Missing prices (NaN) and volumes are skipped
+
+        private static double max(double current, double value) {
+            return Double.isNaN(current) || value > current ? value : current;
+        }
+
+        private static double min(double current, double value) {
+            return Double.isNaN(current) || value < current ? value : current;
+        }
+
+        private static double last(double current, double value) {
+            return Double.isNaN(value) ? current : value;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.store;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.TimeRange;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local store of the historical bars, per symbol and interval, so they survive restarts.
+ * <p>
+ * Only complete bars are stored, so stored bars only change on corporate events, when Yahoo rewrites the past
+ * prices. Each segment keeps the time its bars were fetched, so the segments fetched before a new event are deleted
+ * once it's seen. Each write appends the fetched bars to the segment file they continue, or adds a segment file
+ * covering the fetched range, under {@code <directory>/<symbol>/<interval>}. Files are written and deleted on a
+ * background thread. Store failures are logged and treated as misses.
+ * </p>
+ */
+@Slf4j
+public class HistoricalBarStore {
+
+    public static final boolean ENABLED = !Boolean.getBoolean("cotatrack.historical.disableStore");
+    public static final Path DIRECTORY = Path.of(System.getProperty("cotatrack.historical.storeDirectory",
+            Path.of(System.getProperty("user.home"), ".cotatrack", "historical").toString()));
+    public static final int MAX_SEGMENTS = Integer.getInteger("cotatrack.historical.maxSegments", 16);
+
+    private static final Map<String, SegmentSet> segmentSets = new ConcurrentHashMap<>();
+
+    // Writes and deletes files off the threads completing the fetches, in the order they're requested
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "historical-bar-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Gets the stored bars overlapping the given range, with the part of the range each set of bars covers.
+     *
+     * @param symbol   the symbol
+     * @param interval the interval of the bars
+     * @param range    the time range
+     * @return the stored bars, empty if the range isn't stored or the store is disabled
+     */
+    public static List<StoredBars> read(String symbol, Interval interval, TimeRange range) {
+        if (!ENABLED) {
+            return List.of();
+        }
+
+        try {
+            return getSegmentSet(symbol, interval).read(range);
+        } catch (IOException e) {
+            log.warn("Failed to read stored bars of {} ({})", symbol, interval.getTag(), e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Gets the parts of the given range that are stored, without reading the bars.
+     *
+     * @param symbol   the symbol
+     * @param interval the interval of the bars
+     * @param range    the time range
+     * @return the stored parts of the range, empty if the range isn't stored or the store is disabled
+     */
+    public static List<TimeRange> getStoredRanges(String symbol, Interval interval, TimeRange range) {
+        if (!ENABLED) {
+            return List.of();
+        }
+
+        try {
+            return getSegmentSet(symbol, interval).getStoredRanges(range);
+        } catch (IOException e) {
+            log.warn("Failed to read stored bars of {} ({})", symbol, interval.getTag(), e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Stores the bars of a range in the background. The bars must be complete, i.e. they can't change anymore.
+     *
+     * @param symbol    the symbol
+     * @param interval  the interval of the bars
+     * @param range     the range covered by the bars
+     * @param bars      the bars within the range
+     * @param fetchedAt when the bars were fetched, in epoch seconds
+     * @return a future completed once the bars are stored, never failing
+     */
+    public static CompletableFuture<Void> writeAsync(String symbol, Interval interval, TimeRange range, HistoricalSeries bars, long fetchedAt) {
+        if (!ENABLED || range.start() >= range.end()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                getSegmentSet(symbol, interval).add(range, bars, fetchedAt);
+            } catch (IOException e) {
+                log.warn("Failed to store bars of {} ({})", symbol, interval.getTag(), e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Deletes the stored bars of a symbol, of every interval, fetched before a corporate event changed their price
+     * basis. The files are deleted in the background, in order with the writes.
+     *
+     * @param symbol    the symbol
+     * @param eventTime the time the event took effect, in epoch seconds
+     * @return a future completed once the bars are deleted, never failing
+     */
+    public static CompletableFuture<Void> invalidateAsync(String symbol, long eventTime) {
+        if (!ENABLED) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            for (Interval interval : Interval.values()) {
+                try {
+                    getSegmentSet(symbol, interval).invalidate(eventTime);
+                } catch (IOException e) {
+                    log.warn("Failed to invalidate stored bars of {} ({})", symbol, interval.getTag(), e);
+                }
+            }
+        }, executor);
+    }
+
+    private static SegmentSet getSegmentSet(String symbol, Interval interval) {
+        String key = symbol.toUpperCase() + ":" + interval.getTag();
+        return segmentSets.computeIfAbsent(key, ignored -> new SegmentSet(
+                DIRECTORY.resolve(toFileName(symbol.toUpperCase())).resolve(interval.getTag()),
+                MAX_SEGMENTS
+        ));
+    }
+
+    // Keeps symbols such as ^BVSP or BRL=X, and replaces anything that can't be part of a file name
+    private static String toFileName(String symbol) {
+        return symbol.replaceAll("[^A-Z0-9.^=_-]", "_");
+    }
+}
@@ -0,0 +1,270 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.store;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.TimeRange;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import lombok.Getter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Immutable file of bars covering a time range, sorted by timestamp.
+ * <p>
+ * The file name holds the covered range and the fetch time of the oldest bars, as the prices of the bars fetched
+ * before a corporate event are on an older basis.
+ * </p>
+ * <p>
+ * Each bar is a fixed-width record: the timestamp, the five prices and the volume. The file is memory-mapped,
+ * so bars are read straight from the page cache and located with a binary search on the timestamp.
+ * Later bars are appended to the end of the file, which is then renamed after the extended range.
+ * The mapping is released on {@link #close()}, as some platforms, such as Windows, don't delete mapped files.
+ * </p>
+ */
+final class Segment {
+
+    static final String EXTENSION = ".bars";
+    static final int RECORD_SIZE = Long.BYTES + 5 * Double.BYTES + Long.BYTES;
+
+    // Unmaps a buffer right away rather than once it's garbage collected, or null if the JDK doesn't allow it
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    @Getter
+    private final Path path;
+    @Getter
+    private final TimeRange range;
+    // In epoch seconds, 0 for the segments written before the fetch time was stored
+    @Getter
+    private final long fetchedAt;
+
+    private MappedByteBuffer buffer;
+
+    private Segment(Path path, TimeRange range, long fetchedAt) {
+        this.path = path;
+        this.range = range;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Opens an existing segment file. The covered range and the fetch time are stored in the file name.
+     *
+     * @param path the segment file
+     * @return the segment, or null if the file name isn't a segment name
+     */
+    static Segment open(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(EXTENSION)) {
+            return null;
+        }
+
+        String[] parts = name.substring(0, name.length() - EXTENSION.length()).split("_");
+        if (parts.length != 2 && parts.length != 3) {
+            return null;
+        }
+
+        try {
+            long fetchedAt = parts.length == 3 ? Long.parseLong(parts[2]) : 0;
+            return new Segment(path, new TimeRange(Long.parseLong(parts[0]), Long.parseLong(parts[1])), fetchedAt);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a new segment file. The file is written aside and then moved, so a partial file is never read.
+     *
+     * @param directory the directory of the segment
+     * @param range     the range covered by the bars
+     * @param bars      the bars, sorted by timestamp
+     * @param fetchedAt when the oldest bars were fetched, in epoch seconds
+     * @return the segment
+     * @throws IOException if an I/O error occurs
+     */
+    static Segment write(Path directory, TimeRange range, HistoricalSeries bars, long fetchedAt) throws IOException {
+        ByteBuffer data = encode(bars, 0, bars.size());
+
+        String name = getFileName(range, fetchedAt);
+        Path temporary = directory.resolve(name + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        Path path = directory.resolve(name);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Segment(path, range, fetchedAt);
+    }
+
+    /**
+     * Appends the bars after the end of this segment to its file, and renames the file after the extended range.
+     * This segment is closed and must not be used afterwards.
+     * <p>
+     * Records past the end of the range, left over by an append interrupted before the rename, are overwritten, and
+     * until then they're never read, as reads are bounded by the range in the file name.
+     * </p>
+     *
+     * @param end       the end of the extended range, after the end of this segment
+     * @param bars      the bars to append, sorted by timestamp, the ones before the end of this segment being ignored
+     * @param fetchedAt when the bars were fetched, in epoch seconds
+     * @return the extended segment
+     * @throws IOException if an I/O error occurs
+     */
+    Segment append(long end, HistoricalSeries bars, long fetchedAt) throws IOException {
+        close();
+
+        int fromIndex = bars.indexOf(range.end());
+        int toIndex = bars.indexOf(end);
+        ByteBuffer data = encode(bars, fromIndex, Math.max(fromIndex, toIndex));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = (long) indexOf(channel, range.end()) * RECORD_SIZE;
+            channel.truncate(position);
+            while (data.hasRemaining()) {
+                position += channel.write(data, position);
+            }
+        }
+
+        TimeRange extended = new TimeRange(range.start(), end);
+        long oldestFetch = Math.min(this.fetchedAt, fetchedAt);
+        Path extendedPath = path.resolveSibling(getFileName(extended, oldestFetch));
+        Files.move(path, extendedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Segment(extendedPath, extended, oldestFetch);
+    }
+
+    /**
+     * Reads the bars within the given range.
+     *
+     * @param range the time range
+     * @return the bars within the range
+     * @throws IOException if the file can't be mapped
+     */
+    HistoricalSeries read(TimeRange range) throws IOException {
+        MappedByteBuffer buffer = map();
+        int count = buffer.capacity() / RECORD_SIZE;
+        int fromIndex = indexOf(buffer, count, range.start());
+        int toIndex = indexOf(buffer, count, range.end());
+
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            int offset = i * RECORD_SIZE;
+            builder.add(
+                    buffer.getLong(offset),
+                    buffer.getDouble(offset + 8),
+                    buffer.getDouble(offset + 16),
+                    buffer.getDouble(offset + 24),
+                    buffer.getDouble(offset + 32),
+                    buffer.getDouble(offset + 40),
+                    buffer.getLong(offset + 48)
+            );
+        }
+        return builder.build();
+    }
+
+    /**
+     * Releases the mapping of the file. The segment is mapped again if it's read afterwards, so it must not be read
+     * while it's closed.
+     */
+    synchronized void close() {
+        MappedByteBuffer mapped = buffer;
+        buffer = null;
+        if (mapped != null && INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invokeExact((ByteBuffer) mapped);
+            } catch (Throwable ignored) {
+                // Unmapped once it's garbage collected
+            }
+        }
+    }
+
+    private synchronized MappedByteBuffer map() throws IOException {
+        if (buffer == null) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return buffer;
+    }
+
+    private static String getFileName(TimeRange range, long fetchedAt) {
+        return range.start() + "_" + range.end() + "_" + fetchedAt + EXTENSION;
+    }
+
+    private static ByteBuffer encode(HistoricalSeries bars, int fromIndex, int toIndex) {
+        ByteBuffer data = ByteBuffer.allocate((toIndex - fromIndex) * RECORD_SIZE);
+        for (int i = fromIndex; i < toIndex; i++) {
+            data.putLong(bars.getTimestamp(i));
+            data.putDouble(bars.getOpen(i));
+            data.putDouble(bars.getHigh(i));
+            data.putDouble(bars.getLow(i));
+            data.putDouble(bars.getClose(i));
+            data.putDouble(bars.getAdjClose(i));
+            data.putLong(bars.getVolume(i));
+        }
+        return data.flip();
+    }
+
+    // Index of the first record of the file at or after the given timestamp, reading only the probed timestamps
+    private static int indexOf(FileChannel channel, long timestamp) throws IOException {
+        int low = 0;
+        int high = (int) (channel.size() / RECORD_SIZE);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (readTimestamp(channel, middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long readTimestamp(FileChannel channel, int index) throws IOException {
+        ByteBuffer timestamp = ByteBuffer.allocate(Long.BYTES);
+        long position = (long) index * RECORD_SIZE;
+        while (timestamp.hasRemaining()) {
+            if (channel.read(timestamp, position + timestamp.position()) < 0) {
+                throw new EOFException("Unexpected end of segment file");
+            }
+        }
+        return timestamp.getLong(0);
+    }
+
+    // Index of the first record at or after the given timestamp
+    private static int indexOf(ByteBuffer buffer, int count, long timestamp) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(middle * RECORD_SIZE) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
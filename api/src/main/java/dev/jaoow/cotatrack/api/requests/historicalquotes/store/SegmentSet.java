@@ -0,0 +1,273 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.store;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.TimeRange;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Segments of a symbol and interval, keyed by their range.
+ * <p>
+ * Bars continuing a segment are appended to it, and a new segment supersedes the segments within its range. Runs of
+ * touching segments, left by bars filling the gap before a segment, are compacted into one once there are too many
+ * segments, so no two segments hold the same bars. Superseded segments are unmapped before their
+ * files are deleted, which is why segments are only read under the lock of their set.
+ * </p>
+ * <p>
+ * Segments fetched before a corporate event are dropped once it's seen, and bars fetched before it aren't added
+ * anymore, as their prices are on an older basis.
+ * </p>
+ */
+@Slf4j
+final class SegmentSet {
+
+    // Sorted by start and then by descending end, so a segment comes before the segments it contains
+    private static final Comparator<TimeRange> RANGE_ORDER = Comparator.comparingLong(TimeRange::start)
+            .thenComparing(Comparator.comparingLong(TimeRange::end).reversed());
+
+    private final Path directory;
+    private final int maxSegments;
+    private final NavigableMap<TimeRange, Segment> segments = new TreeMap<>(RANGE_ORDER);
+
+    private boolean loaded;
+    // Bars fetched before this time are on an older price basis, in epoch seconds
+    private long validSince = Long.MIN_VALUE;
+
+    SegmentSet(Path directory, int maxSegments) {
+        this.directory = directory;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Reads the stored bars overlapping the given range.
+     *
+     * @param range the time range
+     * @return the bars of each covered part of the range
+     * @throws IOException if the directory can't be listed or a segment can't be mapped
+     */
+    synchronized List<StoredBars> read(TimeRange range) throws IOException {
+        List<StoredBars> result = new ArrayList<>();
+        for (Segment segment : getOverlapping(range)) {
+            TimeRange covered = intersect(range, segment.getRange());
+            result.add(new StoredBars(covered, segment.read(covered), segment.getFetchedAt()));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the stored parts of the given range, without reading the bars.
+     *
+     * @param range the time range
+     * @return the stored parts of the range
+     * @throws IOException if the directory can't be listed
+     */
+    synchronized List<TimeRange> getStoredRanges(TimeRange range) throws IOException {
+        List<TimeRange> result = new ArrayList<>();
+        for (Segment segment : getOverlapping(range)) {
+            result.add(intersect(range, segment.getRange()));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the given bars. Bars continuing a stored range are appended to the segment it ends with, so polling the
+     * latest bars doesn't add a segment per fetch, while other bars are written into a new segment, which replaces
+     * the segments within its range. Bars fetched before the last {@link #invalidate(long)} are ignored.
+     *
+     * @param range     the range covered by the bars
+     * @param bars      the bars, sorted by timestamp
+     * @param fetchedAt when the bars were fetched, in epoch seconds
+     * @throws IOException if the segment can't be written
+     */
+    synchronized void add(TimeRange range, HistoricalSeries bars, long fetchedAt) throws IOException {
+        if (fetchedAt < validSince) {
+            return;
+        }
+        load();
+        Files.createDirectories(directory);
+
+        Segment segment;
+        Segment tail = getTouchingStart(range);
+        if (tail == null) {
+            segment = Segment.write(directory, range, bars, fetchedAt);
+        } else if (tail.getRange().end() >= range.end()) {
+            return; // Already stored, and stored bars only change on corporate events
+        } else {
+            segments.remove(tail.getRange());
+            segment = tail.append(range.end(), bars, fetchedAt);
+        }
+
+        Iterator<Segment> iterator = segments.values().iterator();
+        while (iterator.hasNext()) {
+            Segment existing = iterator.next();
+            if (existing.getRange().start() >= segment.getRange().end()) {
+                break;
+            }
+            if (contains(segment.getRange(), existing.getRange())) {
+                iterator.remove();
+                release(existing, segment);
+            }
+        }
+        segments.put(segment.getRange(), segment);
+
+        if (segments.size() > maxSegments) {
+            compact();
+        }
+    }
+
+    /**
+     * Deletes the segments fetched before a corporate event, as it changed the price basis of their bars.
+     *
+     * @param eventTime the time the event took effect, in epoch seconds
+     * @throws IOException if the directory can't be listed
+     */
+    synchronized void invalidate(long eventTime) throws IOException {
+        load();
+        validSince = Math.max(validSince, eventTime);
+
+        Iterator<Segment> iterator = segments.values().iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment.getFetchedAt() < eventTime) {
+                iterator.remove();
+                delete(segment);
+            }
+        }
+    }
+
+    /**
+     * Gets the segment the given range starts within or right after, which ends the furthest, as no segment is
+     * within another one.
+     *
+     * @param range the time range
+     * @return the segment, or null if the range doesn't start within or right after a segment
+     */
+    private Segment getTouchingStart(TimeRange range) {
+        Map.Entry<TimeRange, Segment> entry = segments.floorEntry(new TimeRange(range.start(), Long.MIN_VALUE));
+        return entry != null && entry.getKey().end() >= range.start() ? entry.getValue() : null;
+    }
+
+    private List<Segment> getOverlapping(TimeRange range) throws IOException {
+        load();
+
+        List<Segment> overlapping = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment.getRange().start() >= range.end()) {
+                break;
+            }
+            if (segment.getRange().end() > range.start()) {
+                overlapping.add(segment);
+            }
+        }
+        return overlapping;
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<Segment> opened = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Segment segment = Segment.open(file);
+                if (segment != null) {
+                    opened.add(segment);
+                } else if (file.toString().endsWith(".tmp")) {
+                    // Left over by an interrupted write
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        // Segments within another one are left over by a delete that failed, e.g. while the file was still mapped
+        opened.sort(Comparator.comparing(Segment::getRange, RANGE_ORDER));
+        long end = Long.MIN_VALUE;
+        for (Segment segment : opened) {
+            if (segment.getRange().end() <= end) {
+                delete(segment);
+            } else {
+                segments.put(segment.getRange(), segment);
+                end = segment.getRange().end();
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        List<Segment> ordered = new ArrayList<>(segments.values());
+
+        int runStart = 0;
+        while (runStart < ordered.size()) {
+            Segment first = ordered.get(runStart);
+            long runEnd = first.getRange().end();
+
+            int next = runStart + 1;
+            while (next < ordered.size() && ordered.get(next).getRange().start() <= runEnd) {
+                runEnd = Math.max(runEnd, ordered.get(next).getRange().end());
+                next++;
+            }
+
+            if (next - runStart > 1) {
+                List<Segment> run = ordered.subList(runStart, next);
+                Segment merged = merge(run, new TimeRange(first.getRange().start(), runEnd));
+                for (Segment segment : run) {
+                    segments.remove(segment.getRange());
+                    release(segment, merged);
+                }
+                segments.put(merged.getRange(), merged);
+            }
+            runStart = next;
+        }
+    }
+
+    private Segment merge(List<Segment> run, TimeRange range) throws IOException {
+        HistoricalSeries bars = HistoricalSeries.EMPTY;
+        long fetchedAt = Long.MAX_VALUE;
+        for (Segment segment : run) {
+            bars = bars.merge(segment.read(segment.getRange()));
+            fetchedAt = Math.min(fetchedAt, segment.getFetchedAt());
+        }
+        return Segment.write(directory, range, bars, fetchedAt);
+    }
+
+    // Unmaps a superseded segment and deletes its file, unless the replacement was written under the same name
+    private void release(Segment segment, Segment replacement) {
+        segment.close();
+        if (!segment.getPath().equals(replacement.getPath())) {
+            delete(segment);
+        }
+    }
+
+    private void delete(Segment segment) {
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.getPath());
+        } catch (IOException e) {
+            log.warn("Failed to delete superseded segment {}, it's dropped on the next load", segment.getPath(), e);
+        }
+    }
+
+    private static boolean contains(TimeRange range, TimeRange other) {
+        return range.start() <= other.start() && other.end() <= range.end();
+    }
+
+    private static TimeRange intersect(TimeRange range, TimeRange other) {
+        return new TimeRange(Math.max(range.start(), other.start()), Math.min(range.end(), other.end()));
+    }
+}
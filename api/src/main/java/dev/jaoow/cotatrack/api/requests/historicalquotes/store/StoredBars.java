@@ -0,0 +1,14 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.store;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.TimeRange;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+
+/**
+ * Stored bars of a part of a range.
+ *
+ * @param range     the part of the range covered by the bars
+ * @param bars      the bars within the range
+ * @param fetchedAt when the oldest bars were fetched, in epoch seconds, or 0 if that isn't known
+ */
+public record StoredBars(TimeRange range, HistoricalSeries bars, long fetchedAt) {
+}
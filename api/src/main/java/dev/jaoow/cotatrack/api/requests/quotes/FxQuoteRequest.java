@@ -2,12 +2,15 @@ package dev.jaoow.cotatrack.api.requests.quotes;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
 import dev.jaoow.cotatrack.api.requests.quotes.model.FxQuote;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FxQuoteRequest extends QuoteRequest<FxQuote> {
 
+    private static final Cache<String, Parsed<FxQuote>> parsedCache = newParsedCache();
+
     public FxQuoteRequest(String symbols) {
         super(symbols);
     }
@@ -21,4 +24,14 @@ public class FxQuoteRequest extends QuoteRequest<FxQuote> {
             return null;
         }
     }
+
+    @Override
+    protected FxQuote copy(FxQuote parsed) {
+        return parsed.copy();
+    }
+
+    @Override
+    protected Cache<String, Parsed<FxQuote>> getParsedCache() {
+        return parsedCache;
+    }
 }
@@ -1,15 +1,24 @@
 package dev.jaoow.cotatrack.api.requests.quotes;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.NullNode;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.jaoow.cotatrack.api.requests.quotes.batch.QuoteBatcher;
+import dev.jaoow.cotatrack.api.requests.quotes.cache.NegativeLookup;
+import dev.jaoow.cotatrack.api.requests.quotes.cache.NegativeLookupExpiry;
+import dev.jaoow.cotatrack.api.requests.quotes.cache.QuoteExpiry;
 import dev.jaoow.cotatrack.api.requests.quotes.transform.DataTransformer;
+import dev.jaoow.cotatrack.api.util.ConcurrencyLimiter;
 import dev.jaoow.cotatrack.api.util.Utils;
 import dev.jaoow.cotatrack.api.yahoo.YahooConstants;
 import dev.jaoow.cotatrack.api.yahoo.YahooCredentials;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +29,10 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Slf4j
 @Getter
@@ -32,15 +44,109 @@ public abstract class QuoteRequest<T> {
 
     private static final HttpClient httpClient = HttpClient.newBuilder().build();
 
-    private static final Cache<String, JsonNode> cache = Caffeine.newBuilder()
-            .expireAfterWrite(10, TimeUnit.MINUTES)
+    /**
+     * Holds the raw quote data per symbol. Being an async cache, a symbol that is being loaded is stored as
+     * an in-flight future, so concurrent requests for the same symbol wait on the same upstream call.
+     * Entries expire according to the trading hours of their exchange.
+     * In refresh-ahead mode, entries are kept for a while after that, being served while they're reloaded.
+     * The cache is bounded by the number of fields of the cached quotes.
+     */
+    private static final AsyncCache<String, JsonNode> cache = Caffeine.newBuilder()
+            .maximumWeight(Long.getLong("cotatrack.quotes.maxCacheWeight", 500_000))
+            .weigher((String symbol, JsonNode node) -> Math.max(1, node.size()))
+            .expireAfter(new QuoteExpiry())
+            .buildAsync();
+
+    /**
+     * Holds the symbols whose last lookup was not found or failed, so they're not requested again for a while.
+     */
+    private static final Cache<String, NegativeLookup> negativeCache = Caffeine.newBuilder()
+            .maximumSize(Long.getLong("cotatrack.quotes.negativeCacheSize", 10_000))
+            .expireAfter(new NegativeLookupExpiry())
             .build();
 
+    /**
+     * Merges the cache misses of concurrent requests into a single Yahoo Finance request.
+     */
+    private static final QuoteBatcher batcher = new QuoteBatcher(QuoteRequest::loadMissing);
+
+    // Stale symbols being reloaded in the background, so each one is reloaded only once
+    private static final Map<String, CompletableFuture<JsonNode>> refreshing = new ConcurrentHashMap<>();
+
     protected final String symbols;
     protected final List<DataTransformer> transformers = new ArrayList<>();
 
+    // Whether transformers other than the default ones were added, in which case parsed objects can't be shared
+    @Getter(AccessLevel.NONE)
+    private boolean customTransformers;
+
+    /**
+     * Creates a request that transforms the data using the given default transformers.
+     *
+     * @param symbols             the symbols to request
+     * @param defaultTransformers the transformers applied to every object of this request type
+     */
+    protected QuoteRequest(String symbols, DataTransformer... defaultTransformers) {
+        this.symbols = symbols;
+        this.transformers.addAll(Arrays.asList(defaultTransformers));
+    }
+
     protected abstract T parseJson(JsonNode node);
 
+    /**
+     * Creates a copy of a cached object, so callers can modify it without affecting the cache.
+     *
+     * @param parsed the cached object
+     * @return the copy
+     */
+    protected abstract T copy(T parsed);
+
+    /**
+     * Gets the cache of objects already parsed by this request type, if it has one.
+     *
+     * @return the cache of parsed objects or null if they should not be cached
+     */
+    protected Cache<String, Parsed<T>> getParsedCache() {
+        return null;
+    }
+
+    /**
+     * Creates a cache of parsed objects, keyed by symbol.
+     * <p>
+     * Each entry keeps the raw node its object was parsed from, as the version of the entry. The object is only
+     * reused while the raw node of the symbol is the same, so a reloaded node whose data changed is parsed again.
+     * Objects whose transformers couldn't inject all their data aren't cached, see {@link DataTransformer#isComplete}.
+     * </p>
+     *
+     * @param <T> the type of the parsed objects
+     * @return the cache of parsed objects
+     */
+    protected static <T> Cache<String, Parsed<T>> newParsedCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(Long.getLong("cotatrack.quotes.maxParsedObjects", 10_000))
+                .build();
+    }
+
+    /**
+     * Object parsed from a raw node.
+     *
+     * @param source the raw node the object was parsed from
+     * @param value  the parsed object, never handed out, only copies of it
+     * @param <T>    the type of the parsed object
+     */
+    protected record Parsed<T>(JsonNode source, T value) {
+
+        /**
+         * Checks whether the object was parsed from the given raw node, or from an equal one.
+         *
+         * @param node the raw node
+         * @return whether the object is up to date with the node
+         */
+        boolean isParsedFrom(JsonNode node) {
+            return source == node || source.equals(node);
+        }
+    }
+
     /**
      * Adds a data transformer to the list.
      *
@@ -48,6 +154,7 @@ public abstract class QuoteRequest<T> {
      */
     public void addTransformer(DataTransformer transformer) {
         transformers.add(transformer);
+        customTransformers = true;
     }
 
     /**
@@ -68,11 +175,10 @@ public abstract class QuoteRequest<T> {
      * Loads data from Yahoo Finance for specific symbols.
      *
      * @param symbols the symbols for which the data should be loaded
-     * @return the JsonNode representing the loaded data
-     * @throws IOException when there's a connection problem or the request is incorrect
-     * @throws InterruptedException if the request is interrupted
+     * @return a future of the data of each symbol found, keyed by the upper-case symbol, failing with an
+     * {@link IOException} when there's a connection problem or the request is incorrect
      */
-    private JsonNode loadFromYahoo(String symbols) throws IOException, InterruptedException {
+    private static CompletableFuture<Map<String, JsonNode>> loadFromYahoo(String symbols) {
         Map<String, String> params = new LinkedHashMap<>();
         params.put("symbols", symbols);
         params.put("crumb", YahooCredentials.getCrumb());
@@ -87,14 +193,82 @@ public abstract class QuoteRequest<T> {
                 .header("Accept", "application/json")
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return ConcurrencyLimiter.forHost(request.uri().getHost())
+                .submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new CompletionException(new IOException("Failed to fetch data: HTTP status code " + response.statusCode()));
+                    }
 
-        if (response.statusCode() == 200) {
-            log.info("Parsing JSON response: {}", response.body());
-            return objectMapper.readTree(response.body());
-        } else {
-            throw new IOException("Failed to fetch data: HTTP status code " + response.statusCode());
+                    log.debug("Parsing JSON response of {} bytes", response.body().length);
+                    try {
+                        return parseQuoteResponse(response.body());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    /**
+     * Parses the quote response with a streaming parser, reading each entry of {@code quoteResponse.result}
+     * straight into a map keyed by its symbol, so the whole document is never held as a tree.
+     *
+     * @param body the body of the response
+     * @return the data of each symbol, keyed by the upper-case symbol
+     * @throws IOException if the response is not valid JSON
+     */
+    private static Map<String, JsonNode> parseQuoteResponse(byte[] body) throws IOException {
+        Map<String, JsonNode> result = new HashMap<>();
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return result;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT || !field.equals("quoteResponse")) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String responseField = parser.currentName();
+                    if (parser.nextToken() != JsonToken.START_ARRAY || !responseField.equals("result")) {
+                        parser.skipChildren();
+                        continue;
+                    }
+
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        JsonNode item = parser.readValueAsTree();
+                        if (item.has("symbol")) {
+                            result.put(item.get("symbol").asText().toUpperCase(Locale.ROOT), item);
+                        }
+                    }
+                }
+            }
         }
+
+        return result;
+    }
+
+    /**
+     * Loads the symbols that are missing from the cache in a single request.
+     * Symbols not found in the response are mapped to a null node, which is recorded in the negative cache.
+     *
+     * @param symbols the symbols missing from the cache
+     * @return a future of the data for each of the symbols
+     */
+    private static CompletableFuture<Map<String, JsonNode>> loadMissing(Set<String> symbols) {
+        return loadFromYahoo(String.join(",", symbols)).thenApply(data -> {
+            Map<String, JsonNode> result = new HashMap<>();
+            for (String symbol : symbols) {
+                JsonNode symbolData = data.get(symbol.toUpperCase(Locale.ROOT));
+
+                result.put(symbol, symbolData != null ? symbolData : NullNode.getInstance());
+            }
+            return result;
+        });
     }
 
     /**
@@ -104,60 +278,220 @@ public abstract class QuoteRequest<T> {
      * @throws IOException when there's a connection problem or the request is incorrect
      */
     public List<T> getResult() throws IOException {
-        List<T> result = new ArrayList<>();
+        return Utils.await(getResultAsync());
+    }
+
+    /**
+     * Asynchronously fetches the JSON data from Yahoo Finance and the cache.
+     * <p>
+     * Symbols already cached or being loaded by another request are joined, and only the symbols that are
+     * really missing are fetched. Misses from concurrent requests are merged by the {@link QuoteBatcher}.
+     * If only some of the batches fail, the symbols that could be loaded are still returned.
+     * </p>
+     *
+     * @return a future of the parsed objects, failing with an {@link IOException} when there's a connection
+     * problem or the request is incorrect
+     */
+    public CompletableFuture<List<T>> getResultAsync() {
+        // Split the symbols string into a set, keeping the requested order
+        Set<String> symbolSet = new LinkedHashSet<>(Arrays.asList(symbols.split(",")));
 
-        // Split the symbols string into a list
-        String[] symbolList = symbols.split(",");
+        // Atomically joins the symbols being loaded, collecting the missing ones to be loaded together
+        Map<String, CompletableFuture<JsonNode>> futures = new LinkedHashMap<>();
+        Map<String, CompletableFuture<JsonNode>> missing = new LinkedHashMap<>();
+        for (String symbol : symbolSet) {
+            NegativeLookup negativeLookup = negativeCache.getIfPresent(symbol);
+            if (negativeLookup == NegativeLookup.NOT_FOUND) {
+                continue;
+            }
+            if (negativeLookup == NegativeLookup.FAILED) {
+                futures.put(symbol, CompletableFuture.failedFuture(new IOException("The last lookup of " + symbol + " failed")));
+                continue;
+            }
 
-        // Separate cached and non-cached symbols
-        Set<String> cachedSymbols = new HashSet<>();
-        Set<String> nonCachedSymbols = new HashSet<>();
+            CompletableFuture<JsonNode> future = cache.get(symbol, (key, executor) -> missing.computeIfAbsent(key, k -> new CompletableFuture<>()));
+            futures.put(symbol, future);
 
-        for (String symbol : symbolList) {
-            JsonNode cachedNode = cache.getIfPresent(symbol);
-            if (cachedNode != null) {
-                cachedSymbols.add(symbol);
-            } else {
-                nonCachedSymbols.add(symbol);
+            if (!missing.containsKey(symbol)) {
+                refreshIfStale(symbol, future);
             }
         }
 
-        // Fetch data for non-cached symbols
-        if (!nonCachedSymbols.isEmpty()) {
-            String nonCachedSymbolsString = String.join(",", nonCachedSymbols);
-            JsonNode nonCachedData;
-            try {
-                nonCachedData = loadFromYahoo(nonCachedSymbolsString);
-            } catch (InterruptedException e) {
-                log.error("Failed to fetch data", e);
-                return Collections.emptyList();
+        if (!missing.isEmpty()) {
+            missing.forEach(QuoteRequest::recordNegativeLookup);
+            batcher.submit(missing);
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .handle((ignored, ignoredError) -> prepareTransformers(futures))
+                .thenCompose(Function.identity())
+                .thenApply(ignored -> collectResult(futures));
+    }
+
+    /**
+     * Lets the transformers prepare for the nodes that are going to be parsed, e.g. fetching the data they inject
+     * for all the nodes at once. Nodes whose parsed object is reused aren't transformed again, so they're skipped.
+     *
+     * @param futures the futures of the loaded nodes, all of them completed
+     * @return a future completed once the transformers are prepared, never failing
+     */
+    private CompletableFuture<Void> prepareTransformers(Map<String, CompletableFuture<JsonNode>> futures) {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<JsonNode>> entry : futures.entrySet()) {
+            JsonNode node = entry.getValue().isCompletedExceptionally() ? null : entry.getValue().join();
+            if (node != null && !node.isNull() && getParsed(entry.getKey(), node) == null) {
+                nodes.add(node);
             }
+        }
 
-            // Process the non-cached data and update the cache
-            for (String symbol : nonCachedSymbols) {
-                JsonNode symbolData = findSymbolData(nonCachedData, symbol);
-
-                if (symbolData != null) {
-                    cache.put(symbol, symbolData);
-                    JsonNode transformedData = transformData(symbolData);
-                    result.add(this.parseJson(transformedData));
-                } else {
-                    // Add a null node to the cache to avoid fetching the same symbol again
-                    cache.put(symbol, NullNode.getInstance());
-                }
+        if (nodes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<CompletableFuture<Void>> preparations = new ArrayList<>();
+        for (DataTransformer transformer : transformers) {
+            preparations.add(transformer.prepareAsync(nodes).exceptionally(e -> {
+                // The transformer falls back to the data already cached for each node
+                log.warn("Failed to prepare transformer {}", transformer.getClass().getSimpleName(), e);
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(preparations.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Records the symbol in the negative cache if its lookup is not found or fails.
+     * Not found symbols are also dropped from the quote cache right away, see {@link QuoteExpiry}.
+     *
+     * @param symbol the symbol
+     * @param future the future of the lookup
+     */
+    private static void recordNegativeLookup(String symbol, CompletableFuture<JsonNode> future) {
+        future.whenComplete((node, error) -> {
+            if (error != null) {
+                negativeCache.put(symbol, NegativeLookup.FAILED);
+            } else if (node.isNull()) {
+                negativeCache.put(symbol, NegativeLookup.NOT_FOUND);
+            }
+        });
+    }
+
+    /**
+     * Reloads the symbol in the background if its entry is past its time to live, when in refresh-ahead mode.
+     * Meanwhile, the stale entry keeps being served until the reload completes or the entry expires.
+     *
+     * @param symbol the symbol
+     * @param future the cached future of the symbol
+     */
+    private static void refreshIfStale(String symbol, CompletableFuture<JsonNode> future) {
+        if (!QuoteExpiry.REFRESH_AHEAD || !future.isDone() || future.isCompletedExceptionally()) {
+            return;
+        }
+
+        boolean stale = cache.synchronous().policy().expireVariably()
+                .flatMap(expiration -> expiration.getExpiresAfter(symbol))
+                .map(expiresAfter -> expiresAfter.compareTo(QuoteExpiry.STALE_TTL) <= 0)
+                .orElse(false);
+
+        CompletableFuture<JsonNode> reload = new CompletableFuture<>();
+        if (!stale || refreshing.putIfAbsent(symbol, reload) != null) {
+            return;
+        }
+
+        reload.whenComplete((node, error) -> {
+            refreshing.remove(symbol);
+            if (error != null) {
+                // The stale entry keeps being served until it expires
+                log.warn("Failed to refresh data for symbol {}", symbol, error);
+                return;
+            }
+
+            cache.put(symbol, reload);
+            if (node.isNull()) {
+                negativeCache.put(symbol, NegativeLookup.NOT_FOUND);
+            }
+        });
+
+        batcher.submit(Map.of(symbol, reload));
+    }
+
+    /**
+     * Parses the raw node of a symbol, reusing the object already parsed from it when possible.
+     *
+     * @param symbol the symbol
+     * @param node   the raw node
+     * @return the parsed object, which the caller may modify
+     */
+    private T parse(String symbol, JsonNode node) {
+        Cache<String, Parsed<T>> parsedCache = customTransformers ? null : getParsedCache();
+        if (parsedCache == null) {
+            return this.parseJson(transformData(node));
+        }
+
+        Parsed<T> parsed = getParsed(symbol, node);
+        if (parsed == null) {
+            JsonNode transformed = transformData(node);
+            T value = this.parseJson(transformed);
+            if (value == null || !isComplete(transformed)) {
+                return value; // Parsed again next time, once the missing data may be fetched
             }
+
+            parsed = new Parsed<>(node, value);
+            parsedCache.put(symbol, parsed);
+        }
+        return copy(parsed.value());
+    }
+
+    private boolean isComplete(JsonNode transformed) {
+        for (DataTransformer transformer : transformers) {
+            if (!transformer.isComplete(transformed)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the object already parsed from the raw node of a symbol.
+     *
+     * @param symbol the symbol
+     * @param node   the raw node
+     * @return the parsed object, or null if it wasn't parsed from this node or parsed objects can't be reused
+     */
+    private Parsed<T> getParsed(String symbol, JsonNode node) {
+        Cache<String, Parsed<T>> parsedCache = customTransformers ? null : getParsedCache();
+        if (parsedCache == null) {
+            return null;
         }
 
-        // Add cached data to the result
-        for (String symbol : cachedSymbols) {
-            JsonNode cachedNode = cache.getIfPresent(symbol);
-            if (cachedNode == null || cachedNode.isNull()) continue;
+        Parsed<T> parsed = parsedCache.getIfPresent(symbol);
+        return parsed != null && parsed.isParsedFrom(node) ? parsed : null;
+    }
 
-            JsonNode transformedData = transformData(cachedNode);
-            T parsedData = this.parseJson(transformedData);
-            result.add(parsedData);
+    private List<T> collectResult(Map<String, CompletableFuture<JsonNode>> futures) {
+        List<T> result = new ArrayList<>();
+        Throwable failure = null;
+
+        for (Map.Entry<String, CompletableFuture<JsonNode>> entry : futures.entrySet()) {
+            CompletableFuture<JsonNode> future = entry.getValue();
+            if (future.isCompletedExceptionally()) {
+                failure = future.handle((node, error) -> error).join();
+                log.warn("Failed to fetch data for symbol {}", entry.getKey(), failure);
+                continue;
+            }
+
+            JsonNode node = future.join();
+            if (node == null || node.isNull()) continue;
+
+            result.add(parse(entry.getKey(), node));
         }
 
+        // Only fail if none of the symbols could be loaded
+        if (failure != null && result.isEmpty()) {
+            throw failure instanceof CompletionException completionException
+                    ? completionException
+                    : new CompletionException(failure);
+        }
         return result;
     }
 
@@ -174,24 +508,4 @@ public abstract class QuoteRequest<T> {
         }
         return null;
     }
-
-    /**
-     * Finds and returns the data for a specific symbol within the JsonNode.
-     *
-     * @param dataNode the JsonNode containing data for all symbols
-     * @param symbol   the symbol for which data should be found
-     * @return the JsonNode containing the data for the symbol
-     */
-    private JsonNode findSymbolData(JsonNode dataNode, String symbol) {
-        if (dataNode.has("quoteResponse") && dataNode.get("quoteResponse").has("result")) {
-            JsonNode resultNode = dataNode.get("quoteResponse").get("result");
-            for (int i = 0; i < resultNode.size(); i++) {
-                JsonNode item = resultNode.get(i);
-                if (item.has("symbol") && item.get("symbol").asText().equalsIgnoreCase(symbol)) {
-                    return item;
-                }
-            }
-        }
-        return null;
-    }
 }
@@ -2,6 +2,7 @@ package dev.jaoow.cotatrack.api.requests.quotes;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
 import dev.jaoow.cotatrack.api.requests.quotes.model.Quote;
 import dev.jaoow.cotatrack.api.requests.quotes.transform.LogoUrlInjector;
 import dev.jaoow.cotatrack.api.requests.quotes.transform.MarketTimeConverter;
@@ -10,10 +11,10 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class StockQuoteRequest extends QuoteRequest<Quote> {
 
+    private static final Cache<String, Parsed<Quote>> parsedCache = newParsedCache();
+
     public StockQuoteRequest(String symbols) {
-        super(symbols);
-        addTransformer(new LogoUrlInjector());
-        addTransformer(new MarketTimeConverter());
+        super(symbols, new LogoUrlInjector(), new MarketTimeConverter());
     }
 
     @Override
@@ -25,4 +26,14 @@ public class StockQuoteRequest extends QuoteRequest<Quote> {
             return null;
         }
     }
+
+    @Override
+    protected Quote copy(Quote parsed) {
+        return parsed.copy();
+    }
+
+    @Override
+    protected Cache<String, Parsed<Quote>> getParsedCache() {
+        return parsedCache;
+    }
 }
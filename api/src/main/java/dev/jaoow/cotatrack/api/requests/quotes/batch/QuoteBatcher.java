@@ -0,0 +1,163 @@
+package dev.jaoow.cotatrack.api.requests.quotes.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Aggregates quote requests coming from different threads into a single upstream request.
+ * <p>
+ * Symbols submitted within the same window are loaded together. A batch is sent earlier once it reaches the
+ * maximum number of symbols or the maximum length of the symbols query parameter, so large symbol lists are
+ * split into several batches, loaded concurrently. The data for each symbol is handed back to the callers
+ * waiting on it, and a failing batch only fails its own symbols.
+ * </p>
+ */
+@Slf4j
+public class QuoteBatcher {
+
+    public static final long DEFAULT_WINDOW_MILLIS = Long.getLong("cotatrack.quotes.batchWindowMillis", 10);
+    public static final int DEFAULT_MAX_BATCH_SIZE = Integer.getInteger("cotatrack.quotes.maxBatchSize", 100);
+    public static final int DEFAULT_MAX_SYMBOLS_LENGTH = Integer.getInteger("cotatrack.quotes.maxSymbolsLength", 1500);
+
+    // Length of the encoded comma separating the symbols in the query parameter
+    private static final int SEPARATOR_LENGTH = URLEncoder.encode(",", StandardCharsets.UTF_8).length();
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "quote-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<Set<String>, CompletableFuture<Map<String, JsonNode>>> loader;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final int maxSymbolsLength;
+
+    private Map<String, CompletableFuture<JsonNode>> pending = new LinkedHashMap<>();
+    private int pendingLength;
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * Creates a batcher using the default window and batch limits.
+     *
+     * @param loader the function that asynchronously loads a batch of symbols
+     */
+    public QuoteBatcher(Function<Set<String>, CompletableFuture<Map<String, JsonNode>>> loader) {
+        this(loader, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_SYMBOLS_LENGTH);
+    }
+
+    public QuoteBatcher(Function<Set<String>, CompletableFuture<Map<String, JsonNode>>> loader,
+                        long windowMillis,
+                        int maxBatchSize,
+                        int maxSymbolsLength) {
+        this.loader = loader;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxSymbolsLength = maxSymbolsLength;
+    }
+
+    /**
+     * Submits symbols to be loaded in the next batch.
+     * Each future is completed with the data of its symbol, or a null node if the symbol is not found upstream.
+     *
+     * @param loads the symbols to load and the futures waiting on them
+     */
+    public void submit(Map<String, CompletableFuture<JsonNode>> loads) {
+        List<Map<String, CompletableFuture<JsonNode>>> batches = new ArrayList<>();
+
+        synchronized (this) {
+            for (Map.Entry<String, CompletableFuture<JsonNode>> entry : loads.entrySet()) {
+                String symbol = entry.getKey();
+                CompletableFuture<JsonNode> future = entry.getValue();
+
+                CompletableFuture<JsonNode> existing = pending.get(symbol);
+                if (existing != null) {
+                    existing.whenComplete((node, error) -> complete(future, node, error));
+                    continue;
+                }
+
+                int symbolLength = URLEncoder.encode(symbol, StandardCharsets.UTF_8).length() + SEPARATOR_LENGTH;
+                if (!pending.isEmpty() && pendingLength + symbolLength > maxSymbolsLength) {
+                    batches.add(drain());
+                }
+
+                pending.put(symbol, future);
+                pendingLength += symbolLength;
+
+                if (pending.size() >= maxBatchSize) {
+                    batches.add(drain());
+                }
+            }
+
+            if (!pending.isEmpty() && scheduledFlush == null) {
+                if (windowMillis > 0) {
+                    scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    batches.add(drain());
+                }
+            }
+        }
+
+        // Load the full batches outside the lock, so other threads can keep submitting symbols
+        batches.forEach(this::load);
+    }
+
+    private void flush() {
+        Map<String, CompletableFuture<JsonNode>> batch;
+        synchronized (this) {
+            scheduledFlush = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        load(batch);
+    }
+
+    /**
+     * Takes the pending symbols as a batch and starts a new one.
+     * Must be called while holding the lock of this batcher.
+     *
+     * @return the symbols of the batch and the futures waiting on them
+     */
+    private Map<String, CompletableFuture<JsonNode>> drain() {
+        Map<String, CompletableFuture<JsonNode>> batch = pending;
+        pending = new LinkedHashMap<>();
+        pendingLength = 0;
+
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void load(Map<String, CompletableFuture<JsonNode>> batch) {
+        log.debug("Loading batch of {} symbols", batch.size());
+
+        CompletableFuture<Map<String, JsonNode>> result;
+        try {
+            result = loader.apply(batch.keySet());
+        } catch (Throwable e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        result.whenComplete((data, error) -> batch.forEach((symbol, future) ->
+                complete(future, error == null ? data.getOrDefault(symbol, NullNode.getInstance()) : null, error)));
+    }
+
+    private static void complete(CompletableFuture<JsonNode> future, JsonNode node, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(node);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.jaoow.cotatrack.api.requests.quotes.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Reason a symbol lookup produced no data, which is cached for a short time so the symbol isn't requested again.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum NegativeLookup {
+
+    /**
+     * The symbol is not known upstream, e.g. a typo or a delisted ticker.
+     */
+    NOT_FOUND(Duration.ofSeconds(Long.getLong("cotatrack.quotes.notFoundTtlSeconds", 120))),
+
+    /**
+     * The request for the symbol failed.
+     */
+    FAILED(Duration.ofSeconds(Long.getLong("cotatrack.quotes.failedTtlSeconds", 15)));
+
+    private final Duration timeToLive;
+}
@@ -0,0 +1,24 @@
+package dev.jaoow.cotatrack.api.requests.quotes.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Expires negative lookups after the time to live of their reason.
+ */
+public class NegativeLookupExpiry implements Expiry<String, NegativeLookup> {
+
+    @Override
+    public long expireAfterCreate(String key, NegativeLookup value, long currentTime) {
+        return value.getTimeToLive().toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, NegativeLookup value, long currentTime, long currentDuration) {
+        return value.getTimeToLive().toNanos();
+    }
+
+    @Override
+    public long expireAfterRead(String key, NegativeLookup value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
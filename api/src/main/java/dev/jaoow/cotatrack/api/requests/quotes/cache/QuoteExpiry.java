@@ -0,0 +1,80 @@
+package dev.jaoow.cotatrack.api.requests.quotes.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.jaoow.cotatrack.api.market.ExchangeCalendar;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Expires quotes according to the trading hours of their exchange.
+ * <p>
+ * While the market is open, quotes expire after a short time. Once it's closed, prices don't move, so quotes
+ * are kept until the next session opens. Quotes from unknown exchanges expire after a fixed time, and not found
+ * symbols expire right away, as they're kept in the negative cache instead.
+ * </p>
+ * <p>
+ * When the refresh-ahead mode is enabled ({@code cotatrack.cache.refreshAhead}), quotes are kept for an extra
+ * {@link #STALE_TTL} after their time to live, during which they are served while being reloaded.
+ * </p>
+ */
+public class QuoteExpiry implements Expiry<String, JsonNode> {
+
+    public static final Duration OPEN_MARKET_TTL = Duration.ofSeconds(Long.getLong("cotatrack.quotes.openMarketTtlSeconds", 60));
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(Long.getLong("cotatrack.quotes.defaultTtlSeconds", 600));
+
+    public static final boolean REFRESH_AHEAD = Boolean.getBoolean("cotatrack.cache.refreshAhead");
+    public static final Duration STALE_TTL = Duration.ofSeconds(Long.getLong("cotatrack.quotes.staleTtlSeconds", 300));
+
+    /**
+     * Computes how long the quote should be cached from now.
+     *
+     * @param node the raw quote data
+     * @return the time to live of the quote
+     */
+    public Duration timeToLive(JsonNode node) {
+        if (node.isNull()) {
+            return Duration.ZERO;
+        }
+
+        ExchangeCalendar calendar = node.has("exchange") ? ExchangeCalendar.forExchange(node.get("exchange").asText()) : null;
+        if (calendar == null) {
+            return DEFAULT_TTL;
+        }
+
+        Instant now = Instant.now();
+        if (calendar.isOpen(now)) {
+            return OPEN_MARKET_TTL;
+        }
+
+        Duration untilOpen = Duration.between(now, calendar.nextOpen(now));
+        return untilOpen.compareTo(OPEN_MARKET_TTL) > 0 ? untilOpen : OPEN_MARKET_TTL;
+    }
+
+    /**
+     * Computes how long the quote is kept in the cache, including the time it may be served stale.
+     *
+     * @param node the raw quote data
+     * @return the time until the quote is evicted
+     */
+    public Duration timeToEviction(JsonNode node) {
+        Duration timeToLive = timeToLive(node);
+        return REFRESH_AHEAD && !timeToLive.isZero() ? timeToLive.plus(STALE_TTL) : timeToLive;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, JsonNode value, long currentTime) {
+        return timeToEviction(value).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, JsonNode value, long currentTime, long currentDuration) {
+        return timeToEviction(value).toNanos();
+    }
+
+    @Override
+    public long expireAfterRead(String key, JsonNode value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -1,7 +1,10 @@
 package dev.jaoow.cotatrack.api.requests.quotes.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
@@ -9,11 +12,24 @@ import java.math.BigDecimal;
  * Represents a foreign exchange (FX) quote with market data.
  */
 @Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
 public class FxQuote {
 
     private String symbol;
 
     @JsonProperty("regularMarketPrice")
+    @Builder.Default
     private BigDecimal price = BigDecimal.ZERO;
 
+    /**
+     * Copies this quote, so the copy can be modified without affecting this quote.
+     *
+     * @return the copy
+     */
+    public FxQuote copy() {
+        return toBuilder().build();
+    }
+
 }
\ No newline at end of file
@@ -2,21 +2,29 @@ package dev.jaoow.cotatrack.api.requests.quotes.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.jaoow.cotatrack.api.indicator.IndicatorSeries;
+import dev.jaoow.cotatrack.api.indicator.IndicatorSpec;
+import dev.jaoow.cotatrack.api.requests.dividends.analytics.DividendAnalytics;
+import dev.jaoow.cotatrack.api.requests.dividends.analytics.DividendSummary;
 import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
 import dev.jaoow.cotatrack.api.requests.dividends.DividendsRequest;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalQuote;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.HistoricalQuotesRequest;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a stock quote with market data, historical and dividends information.
  */
 @Data
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -72,7 +80,23 @@ public class Quote {
     private long marketCap;
 
     private List<HistoricalQuote> historicalQuotes;
+    private IndicatorSeries indicators;
     private DividendsData dividends;
+    private DividendSummary dividendSummary;
+
+    /**
+     * Copies this quote, so the copy can be modified without affecting this quote.
+     * The mutable fields are copied as well, while the historical and dividends data, which are never modified once
+     * set, are shared.
+     *
+     * @return the copy
+     */
+    public Quote copy() {
+        return toBuilder()
+                .regularMarketTime(regularMarketTime != null ? new Date(regularMarketTime.getTime()) : null)
+                .historicalQuotes(historicalQuotes != null ? new ArrayList<>(historicalQuotes) : null)
+                .build();
+    }
 
     /**
      * Requests historical quotes for this stock from the specified start date to the specified end date and interval.
@@ -99,4 +123,81 @@ public class Quote {
         DividendsRequest dividendsRequest = new DividendsRequest(this.symbol);
         this.setDividends(dividendsRequest.getResult());
     }
-}
\ No newline at end of file
+
+    /**
+     * Asynchronously requests historical quotes for this stock.
+     *
+     * @param historicalRequest the historical quotes request
+     * @return a future completed once the historical quotes are set
+     */
+    public CompletableFuture<Void> fetchHistoricalQuotesAsync(HistoricalQuotesRequest historicalRequest) {
+        if (this.historicalQuotes != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return historicalRequest.getResultAsync().thenAccept(this::setHistoricalQuotes);
+    }
+
+    /**
+     * Asynchronously requests the historical quotes of this stock and computes technical indicators over them,
+     * fetching the bars once for both. The bars needed by the longest indicator are fetched before the requested
+     * ones, so every indicator has values from the first requested bar on, when upstream has that many bars.
+     *
+     * @param historicalRequest       the historical quotes request
+     * @param indicators              the indicators to compute
+     * @param includeHistoricalQuotes whether the historical quotes should be set as well
+     * @return a future completed once the indicators are set
+     */
+    public CompletableFuture<Void> fetchIndicatorsAsync(HistoricalQuotesRequest historicalRequest,
+                                                        List<IndicatorSpec> indicators,
+                                                        boolean includeHistoricalQuotes) {
+        if (this.indicators != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int warmUpBars = indicators.stream().mapToInt(IndicatorSpec::getWarmUpBars).max().orElse(0);
+        return historicalRequest.getSeriesAsync(warmUpBars).thenAccept(warmedUp -> {
+            if (includeHistoricalQuotes && this.historicalQuotes == null) {
+                this.setHistoricalQuotes(warmedUp.getWindow().asList());
+            }
+            this.setIndicators(IndicatorSeries.compute(warmedUp.series(), indicators, this.symbol, warmedUp.getWindowIndex()));
+        });
+    }
+
+    /**
+     * Asynchronously requests the dividends data for this stock from B3.
+     *
+     * @return a future completed once the dividends data is set
+     */
+    public CompletableFuture<Void> fetchDividendsDataAsync() {
+        if (this.dividends != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        DividendsRequest dividendsRequest = new DividendsRequest(this.symbol);
+        return dividendsRequest.getResultAsync().thenAccept(this::setDividends);
+    }
+
+    /**
+     * Asynchronously computes the dividend summary of this stock from its B3 dividends data.
+     *
+     * @param includeDividends whether the dividends data should be set as well
+     * @return a future completed once the dividend summary is set, if the dividends data could be fetched
+     */
+    public CompletableFuture<Void> fetchDividendSummaryAsync(boolean includeDividends) {
+        if (this.dividendSummary != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        DividendsRequest dividendsRequest = new DividendsRequest(this.symbol);
+        return dividendsRequest.getResultAsync().thenAccept(data -> {
+            if (data == null) {
+                return;
+            }
+            if (includeDividends && this.dividends == null) {
+                this.setDividends(data);
+            }
+            this.setDividendSummary(DividendAnalytics.summarize(this.symbol, data, this.regularMarketPrice));
+        });
+    }
+}
@@ -2,10 +2,35 @@ package dev.jaoow.cotatrack.api.requests.quotes.transform;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * A data transformer is used to transform the JSON data before parsing it.
  * This can be used to inject additional data or modify the existing data.
  */
 public interface DataTransformer {
     JsonNode transform(JsonNode node);
+
+    /**
+     * Prepares the transformation of the given nodes, which are transformed right after. Transformers that look up
+     * data per node can fetch it for all the nodes at once here.
+     *
+     * @param nodes the nodes about to be transformed
+     * @return a future completed once the transformer is prepared
+     */
+    default CompletableFuture<Void> prepareAsync(List<JsonNode> nodes) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Checks whether a node transformed by this transformer holds all the data it injects. Objects parsed from an
+     * incomplete node, e.g. because a lookup failed, aren't reused, so the node is transformed again next time.
+     *
+     * @param node the transformed node
+     * @return whether the node is complete
+     */
+    default boolean isComplete(JsonNode node) {
+        return true;
+    }
 }
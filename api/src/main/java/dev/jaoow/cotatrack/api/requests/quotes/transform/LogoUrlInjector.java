@@ -4,8 +4,20 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.jaoow.cotatrack.api.tradingview.LogoIdFetcher;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class LogoUrlInjector implements DataTransformer {
 
+    // The logo ids fetched by prepareAsync, keyed by exchange key and symbol, and the keys that were looked up
+    private final Map<String, String> preparedLogoIds = new ConcurrentHashMap<>();
+    private final Set<String> preparedKeys = ConcurrentHashMap.newKeySet();
+
     private String getLogoUrl(String logoId) {
         if (logoId == null) {
             return System.getProperty("defaultLogoUrl", "");
@@ -13,17 +25,57 @@ public class LogoUrlInjector implements DataTransformer {
         return "https://s3-symbol-logo.tradingview.com/" + logoId + ".svg";
     }
 
+    /**
+     * Fetches the logo ids of all the nodes at once, so the ones that aren't cached yet are resolved in bulk
+     * instead of one by one in {@link #transform(JsonNode)}.
+     */
+    @Override
+    public CompletableFuture<Void> prepareAsync(List<JsonNode> nodes) {
+        Map<String, List<String>> symbolsByExchange = new HashMap<>();
+        for (JsonNode node : nodes) {
+            if (node.has("exchange") && node.has("symbol") && !node.has("logoUrl")) {
+                symbolsByExchange.computeIfAbsent(node.get("exchange").asText(), key -> new ArrayList<>())
+                        .add(node.get("symbol").asText());
+            }
+        }
+
+        if (symbolsByExchange.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return LogoIdFetcher.fetchLogoIdsAsync(symbolsByExchange).thenAccept(logoIds -> {
+            preparedLogoIds.putAll(logoIds);
+            symbolsByExchange.forEach((exchange, symbols) -> symbols.forEach(symbol -> preparedKeys.add(exchange + ":" + symbol)));
+        });
+    }
+
+    /**
+     * Injects the logo url, using the logo ids fetched by {@link #prepareAsync(List)}. Nodes that weren't prepared
+     * only use a logo id that is already cached, so the transformation never waits for a lookup; the default logo
+     * is injected meanwhile and the lookup goes on in the background.
+     */
     @Override
     public JsonNode transform(JsonNode node) {
         if (node instanceof ObjectNode objectNode && !node.has("logoUrl")) {
             String exchange = node.get("exchange").asText();
             String symbol = node.get("symbol").asText();
 
-            String logoId = LogoIdFetcher.fetchLogoId(exchange, symbol);
+            String key = exchange + ":" + symbol;
+            String logoId = preparedKeys.contains(key)
+                    ? preparedLogoIds.get(key)
+                    : LogoIdFetcher.fetchLogoIdAsync(exchange, symbol).getNow(null);
             String logoUrl = getLogoUrl(logoId);
 
             objectNode.put("logoUrl", logoUrl);
         }
         return node;
     }
+
+    /**
+     * Nodes with the default logo are incomplete, as logo ids that aren't found or fail to be fetched aren't cached
+     * and are looked up again.
+     */
+    @Override
+    public boolean isComplete(JsonNode node) {
+        return !node.path("logoUrl").asText().equals(getLogoUrl(null));
+    }
 }
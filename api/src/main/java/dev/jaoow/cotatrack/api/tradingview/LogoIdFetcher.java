@@ -1,17 +1,76 @@
 package dev.jaoow.cotatrack.api.tradingview;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import dev.jaoow.cotatrack.api.tradingview.field.FieldFetcher;
 import dev.jaoow.cotatrack.api.tradingview.field.StockField;
+import dev.jaoow.cotatrack.api.tradingview.field.enums.Market;
+import dev.jaoow.cotatrack.api.tradingview.filter.Filter;
+import dev.jaoow.cotatrack.api.tradingview.screener.StockScreener;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
 @Slf4j
 public class LogoIdFetcher {
 
-    private static final LoadingCache<String, String> cache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .build(LogoIdFetcher::fetchLogoIdFromAPI);
+    private static final boolean REFRESH_AHEAD = Boolean.getBoolean("cotatrack.cache.refreshAhead");
+    private static final Duration SOFT_TTL = Duration.ofHours(Long.getLong("cotatrack.logos.softTtlHours", 24));
+    private static final Duration HARD_TTL = Duration.ofHours(Long.getLong("cotatrack.logos.hardTtlHours", 24 * 7));
+    // Large enough to hold the logo ids of the whole preloaded universe, which are tiny
+    private static final long MAX_CACHED_LOGOS = Long.getLong("cotatrack.logos.maxCachedLogos", 50_000);
+
+    // The bulk scans block while they're fetched, so they run on their own threads instead of the common pool
+    private static final Executor executor = Executors.newFixedThreadPool(
+            Integer.getInteger("cotatrack.logos.fetchThreads", 4),
+            runnable -> {
+                Thread thread = new Thread(runnable, "logo-id-fetcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final AsyncLoadingCache<String, String> cache = buildCache();
+
+    /**
+     * Builds the logo id cache. In refresh-ahead mode, entries older than the soft TTL keep being served while
+     * they're reloaded in the background, and are only evicted after the hard TTL.
+     * <p>
+     * Single misses are fetched from the symbol endpoint, while the misses of a bulk lookup are resolved
+     * together, with one scan per exchange.
+     * </p>
+     *
+     * @return the logo id cache
+     */
+    private static AsyncLoadingCache<String, String> buildCache() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(MAX_CACHED_LOGOS).executor(executor);
+        if (REFRESH_AHEAD) {
+            builder.refreshAfterWrite(SOFT_TTL).expireAfterWrite(HARD_TTL);
+        }
+        return builder.buildAsync(new AsyncCacheLoader<>() {
+            @Override
+            public CompletableFuture<String> asyncLoad(String cacheKey, Executor executor) {
+                return fetchLogoIdFromAPI(cacheKey, executor);
+            }
+
+            @Override
+            public CompletableFuture<Map<String, String>> asyncLoadAll(Set<? extends String> cacheKeys, Executor executor) {
+                return fetchLogoIdsFromScan(cacheKeys, executor);
+            }
+        });
+    }
 
     /**
      * Fetches the logo id for the given exchange and symbol.
@@ -21,11 +80,48 @@ public class LogoIdFetcher {
      * @return the logo id
      */
     public static String fetchLogoId(String exchangeKey, String symbol) {
+        return fetchLogoIdAsync(exchangeKey, symbol).join();
+    }
+
+    /**
+     * Asynchronously fetches the logo id for the given exchange and symbol.
+     *
+     * @param exchangeKey the exchange key
+     * @param symbol      the symbol
+     * @return a future of the logo id
+     */
+    public static CompletableFuture<String> fetchLogoIdAsync(String exchangeKey, String symbol) {
         String cacheKey = exchangeKey + ":" + symbol;
         return cache.get(cacheKey);
     }
 
-    private static String fetchLogoIdFromAPI(String cacheKey) {
+    /**
+     * Asynchronously fetches the logo ids of many symbols. The ones that aren't cached are resolved together through
+     * a single screener scan per exchange, instead of one request per symbol.
+     *
+     * @param symbolsByExchange the symbols, keyed by their exchange key
+     * @return a future of the logo ids found, keyed by exchange key and symbol, e.g. SAO:PETR4.SA
+     */
+    public static CompletableFuture<Map<String, String>> fetchLogoIdsAsync(Map<String, ? extends Collection<String>> symbolsByExchange) {
+        Set<String> cacheKeys = new LinkedHashSet<>();
+        symbolsByExchange.forEach((exchangeKey, symbols) -> symbols.forEach(symbol -> cacheKeys.add(exchangeKey + ":" + symbol)));
+
+        return cache.getAll(cacheKeys).exceptionally(e -> {
+            log.warn("Failed to fetch logo ids of {} symbols", cacheKeys.size(), e);
+            return Map.of();
+        });
+    }
+
+    /**
+     * Puts logo ids into the cache, replacing the cached ones, e.g. the ones preloaded by the {@link LogoPreloader}.
+     *
+     * @param logoIds the logo ids, keyed by exchange key and symbol, e.g. SAO:PETR4.SA
+     */
+    public static void putAll(Map<String, String> logoIds) {
+        cache.synchronous().putAll(logoIds);
+    }
+
+    private static CompletableFuture<String> fetchLogoIdFromAPI(String cacheKey, Executor executor) {
         String[] parts = cacheKey.split(":");
         String exchangeKey = parts[0];
         String symbol = parts[1];
@@ -35,9 +131,88 @@ public class LogoIdFetcher {
             stockExchange = StockExchange.valueOf(exchangeKey);
         } catch (IllegalArgumentException e) {
             log.warn("Invalid exchange key: {}", exchangeKey);
-            return null;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return FieldFetcher.fetchFieldAsync(stockExchange.getExchangeCode(), symbol, StockField.LOGOID);
+    }
+
+    /**
+     * Fetches the logo ids of the given keys through one screener scan per exchange, filtered by ticker.
+     * Keys that aren't found are left out, so they're looked up again next time.
+     *
+     * @param cacheKeys the keys to load, as exchange key and symbol
+     * @param executor  the executor the scans run on
+     * @return a future of the logo ids found
+     */
+    private static CompletableFuture<Map<String, String>> fetchLogoIdsFromScan(Set<? extends String> cacheKeys, Executor executor) {
+        // Cache keys by exchange and ticker, e.g. SAO -> PETR4 -> SAO:PETR4.SA
+        Map<StockExchange, Map<String, String>> keysByExchange = new HashMap<>();
+        for (String cacheKey : cacheKeys) {
+            String[] parts = cacheKey.split(":");
+            try {
+                StockExchange exchange = StockExchange.valueOf(parts[0]);
+                keysByExchange.computeIfAbsent(exchange, key -> new HashMap<>()).put(getTicker(parts[1]), cacheKey);
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid exchange key: {}", parts[0]);
+            }
+        }
+
+        List<CompletableFuture<Map<String, String>>> scans = new ArrayList<>();
+        keysByExchange.forEach((exchange, keysByTicker) -> scans.add(CompletableFuture.supplyAsync(() -> {
+            try {
+                return scanLogoIds(exchange, keysByTicker);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor)));
+
+        return CompletableFuture.allOf(scans.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            Map<String, String> result = new HashMap<>();
+            scans.forEach(scan -> result.putAll(scan.join()));
+            return result;
+        });
+    }
+
+    private static Map<String, String> scanLogoIds(StockExchange exchange, Map<String, String> keysByTicker) throws Exception {
+        StockScreener screener = StockScreener.create()
+                .withStockFields(StockField.NAME, StockField.LOGOID)
+                .withMarkets(getMarkets(exchange))
+                .addFilter(StockField.EXCHANGE, Filter.Operator.EQUAL, exchange.getExchangeCode())
+                .addFilter(StockField.NAME, Filter.Operator.IN_RANGE, new ArrayList<>(keysByTicker.keySet()))
+                .withRange(0, keysByTicker.size());
+
+        Map<String, String> result = new HashMap<>();
+        JsonNode rows = screener.fetch();
+        for (JsonNode row : rows) {
+            String cacheKey = keysByTicker.get(row.path(StockField.NAME.getKey()).asText());
+            JsonNode logoId = row.get(StockField.LOGOID.getKey());
+            if (cacheKey != null && logoId != null && !logoId.isNull()) {
+                result.put(cacheKey, logoId.asText());
+            }
         }
 
-        return FieldFetcher.fetchField(stockExchange.getExchangeCode(), symbol, StockField.LOGOID);
+        log.info("Resolved {} of {} logo ids of {} in a single scan", result.size(), keysByTicker.size(), exchange);
+        return result;
+    }
+
+    /**
+     * Gets the markets to scan for an exchange, none meaning all the markets.
+     *
+     * @param exchange the exchange
+     * @return the markets
+     */
+    static Market[] getMarkets(StockExchange exchange) {
+        return switch (exchange) {
+            case SAO -> new Market[]{Market.BRAZIL};
+            case NYQ, NMS, ASE -> new Market[]{Market.AMERICA};
+            default -> new Market[0];
+        };
+    }
+
+    // The ticker of a Yahoo Finance symbol, without the market suffix, e.g. PETR4 for PETR4.SA
+    private static String getTicker(String symbol) {
+        int suffix = symbol.indexOf('.');
+        return suffix >= 0 ? symbol.substring(0, suffix) : symbol;
     }
 }
@@ -0,0 +1,217 @@
+package dev.jaoow.cotatrack.api.tradingview;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jaoow.cotatrack.api.tradingview.field.StockField;
+import dev.jaoow.cotatrack.api.tradingview.field.enums.Market;
+import dev.jaoow.cotatrack.api.tradingview.screener.StockScreener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Preloads the logo ids of every symbol of the configured markets into the {@link LogoIdFetcher} cache, so logo
+ * lookups are almost never on the request path.
+ * <p>
+ * The logo ids are scanned a page at a time and kept in a local snapshot file, which is loaded on start. Since logo
+ * ids hardly ever change, the markets are only scanned again once the snapshot is older than the refresh interval.
+ * </p>
+ */
+@Slf4j
+public class LogoPreloader {
+
+    public static final boolean ENABLED = !Boolean.getBoolean("cotatrack.logos.disablePreload");
+    public static final Duration REFRESH_INTERVAL = Duration.ofHours(Long.getLong("cotatrack.logos.preloadIntervalHours", 24 * 7));
+    public static final Path SNAPSHOT_FILE = Path.of(System.getProperty("cotatrack.logos.snapshotFile",
+            Path.of(System.getProperty("user.home"), ".cotatrack", "logos.json").toString()));
+    // Markets scanned along with Brazil, comma separated, e.g. AMERICA
+    public static final Set<Market> MARKETS = parseMarkets(System.getProperty("cotatrack.logos.preloadMarkets", ""));
+
+    private static final int PAGE_SIZE = Integer.getInteger("cotatrack.logos.preloadPageSize", 1_000);
+    // Guards against a scan that never runs out of rows
+    private static final int MAX_PAGES = 100;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "logo-preloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Snapshot of the preloaded logo ids.
+     *
+     * @param fetchedAt when the logo ids were scanned, in epoch seconds
+     * @param logoIds   the logo ids, keyed by exchange key and symbol, e.g. SAO:PETR4.SA
+     */
+    record Snapshot(long fetchedAt, Map<String, String> logoIds) {
+    }
+
+    /**
+     * Loads the snapshot into the cache, then scans the markets in the background once it's due and periodically
+     * after that. Does nothing if the preloader is disabled or already started.
+     */
+    public static void start() {
+        if (!ENABLED || !started.compareAndSet(false, true)) {
+            return;
+        }
+
+        Snapshot snapshot = readSnapshot();
+        long initialDelay = 0;
+        if (snapshot != null) {
+            LogoIdFetcher.putAll(snapshot.logoIds());
+            log.info("Loaded {} logo ids from the snapshot", snapshot.logoIds().size());
+
+            long age = Instant.now().getEpochSecond() - snapshot.fetchedAt();
+            initialDelay = Math.max(0, REFRESH_INTERVAL.toSeconds() - age);
+        }
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                preload();
+            } catch (Exception e) {
+                log.error("Failed to preload the logo ids", e);
+            }
+        }, initialDelay, REFRESH_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Scans the logo ids of the configured markets, putting them into the cache and storing the snapshot.
+     * The previous snapshot is kept if nothing could be scanned.
+     *
+     * @return the number of logo ids preloaded
+     * @throws Exception if a scan fails
+     */
+    public static int preload() throws Exception {
+        Map<String, String> logoIds = new HashMap<>();
+        for (Market market : MARKETS) {
+            scanMarket(market, logoIds);
+        }
+
+        if (logoIds.isEmpty()) {
+            log.warn("No logo ids were scanned, keeping the previous snapshot");
+            return 0;
+        }
+
+        LogoIdFetcher.putAll(logoIds);
+        writeSnapshot(new Snapshot(Instant.now().getEpochSecond(), logoIds));
+        log.info("Preloaded {} logo ids of {}", logoIds.size(), MARKETS);
+        return logoIds.size();
+    }
+
+    /**
+     * Scans the logo ids of a market, a page at a time, sorted by name so the pages don't overlap.
+     * Rows of exchanges unknown to {@link StockExchange} or without a logo are skipped.
+     *
+     * @param market  the market
+     * @param logoIds the map the logo ids are added to
+     * @throws Exception if a scan fails
+     */
+    private static void scanMarket(Market market, Map<String, String> logoIds) throws Exception {
+        for (int page = 0; page < MAX_PAGES; page++) {
+            int from = page * PAGE_SIZE;
+            JsonNode rows = StockScreener.create()
+                    .withStockFields(StockField.LOGOID)
+                    .withMarkets(market)
+                    .withSortBy(StockField.NAME, true)
+                    .withRange(from, from + PAGE_SIZE)
+                    .fetch();
+
+            if (rows == null) {
+                return;
+            }
+
+            for (JsonNode row : rows) {
+                String cacheKey = getCacheKey(row.path("symbol").asText());
+                JsonNode logoId = row.get(StockField.LOGOID.getKey());
+                if (cacheKey != null && logoId != null && !logoId.isNull() && !logoId.asText().isEmpty()) {
+                    logoIds.put(cacheKey, logoId.asText());
+                }
+            }
+
+            if (rows.size() < PAGE_SIZE) {
+                return;
+            }
+        }
+        log.warn("Stopped scanning the logo ids of {} after {} pages", market, MAX_PAGES);
+    }
+
+    /**
+     * Gets the cache key of a TradingView symbol, e.g. SAO:PETR4.SA for BMFBOVESPA:PETR4.
+     *
+     * @param tradingViewSymbol the TradingView symbol, as exchange code and ticker
+     * @return the cache key or null if the exchange is unknown
+     */
+    static String getCacheKey(String tradingViewSymbol) {
+        int separator = tradingViewSymbol.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+
+        StockExchange exchange = StockExchange.fromExchangeCode(tradingViewSymbol.substring(0, separator));
+        if (exchange == null) {
+            return null;
+        }
+        return exchange.name() + ":" + tradingViewSymbol.substring(separator + 1) + exchange.getSymbolSuffix();
+    }
+
+    private static Snapshot readSnapshot() {
+        try {
+            Snapshot snapshot = objectMapper.readValue(SNAPSHOT_FILE.toFile(), Snapshot.class);
+            return snapshot.logoIds() != null ? snapshot : null;
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read the logo ids snapshot", e);
+            return null;
+        }
+    }
+
+    private static void writeSnapshot(Snapshot snapshot) {
+        Path temporary = SNAPSHOT_FILE.resolveSibling(SNAPSHOT_FILE.getFileName() + ".tmp");
+        try {
+            if (SNAPSHOT_FILE.getParent() != null) {
+                Files.createDirectories(SNAPSHOT_FILE.getParent());
+            }
+            objectMapper.writeValue(temporary.toFile(), snapshot);
+            // Readers never see a partially written file
+            Files.move(temporary, SNAPSHOT_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store the logo ids snapshot", e);
+        }
+    }
+
+    private static Set<Market> parseMarkets(String value) {
+        Set<Market> markets = EnumSet.of(Market.BRAZIL);
+        for (String market : value.split(",")) {
+            if (market.isBlank()) continue;
+            try {
+                markets.add(Market.valueOf(market.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown market to preload the logo ids of: {}", market);
+            }
+        }
+        return markets;
+    }
+}
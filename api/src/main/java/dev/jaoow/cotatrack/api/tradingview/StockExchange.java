@@ -9,21 +9,38 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public enum StockExchange {
-    NYQ("NYSE"),
-    NMS("NASDAQ"),
-    ASE("AMEX"),
-    SAO("BMFBOVESPA"),
-    LSE("LSE"),
-    TYO("TSE"),
-    HKG("HKEX"),
-    SHA("SSE"),
-    SHZ("SZSE"),
-    TOR("TSX"),
-    FRA("FSE"),
-    JSE("JSE"),
-    XETRA("XETRA");
+    NYQ("NYSE", ""),
+    NMS("NASDAQ", ""),
+    ASE("AMEX", ""),
+    SAO("BMFBOVESPA", ".SA"),
+    LSE("LSE", ".L"),
+    TYO("TSE", ".T"),
+    HKG("HKEX", ".HK"),
+    SHA("SSE", ".SS"),
+    SHZ("SZSE", ".SZ"),
+    TOR("TSX", ".TO"),
+    FRA("FSE", ".F"),
+    JSE("JSE", ".JO"),
+    XETRA("XETRA", ".DE");
 
     // TradingView exchange code
     private final String exchangeCode;
 
+    // Suffix of the Yahoo Finance symbols, e.g. .SA for PETR4.SA, empty for the US exchanges
+    private final String symbolSuffix;
+
+    /**
+     * Gets the exchange with the given TradingView exchange code.
+     *
+     * @param exchangeCode the TradingView exchange code, e.g. BMFBOVESPA
+     * @return the exchange or null if it's unknown
+     */
+    public static StockExchange fromExchangeCode(String exchangeCode) {
+        for (StockExchange exchange : values()) {
+            if (exchange.exchangeCode.equals(exchangeCode)) {
+                return exchange;
+            }
+        }
+        return null;
+    }
 }
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.jaoow.cotatrack.api.util.Utils;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -12,12 +13,15 @@ import java.net.http.HttpResponse;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 public class FieldFetcher {
 
     private static final String BASE_URL = "https://scanner.tradingview.com/symbol?";
     private static final HttpClient client = HttpClient.newHttpClient();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * Fetches the field from the TradingView API.
@@ -28,6 +32,18 @@ public class FieldFetcher {
      * @return the field fetched
      */
     public static String fetchField(String exchangeKey, String symbol, FieldKey field) {
+        return fetchFieldAsync(exchangeKey, symbol, field).join();
+    }
+
+    /**
+     * Asynchronously fetches the field from the TradingView API.
+     *
+     * @param exchangeKey the exchange key
+     * @param symbol      the symbol
+     * @param field       the field to fetch
+     * @return a future of the field fetched, completed with null if it could not be fetched
+     */
+    public static CompletableFuture<String> fetchFieldAsync(String exchangeKey, String symbol, FieldKey field) {
         String urlStr = buildUrl(exchangeKey, symbol, List.of(field));
         return fetchFieldFromAPI(urlStr, field);
     }
@@ -41,6 +57,18 @@ public class FieldFetcher {
      * @return the fields fetched
      */
     public static Map<String, String> fetchFields(String exchangeKey, String symbol, List<FieldKey> fields) {
+        return fetchFieldsAsync(exchangeKey, symbol, fields).join();
+    }
+
+    /**
+     * Asynchronously fetches the fields from the TradingView API.
+     *
+     * @param exchangeKey the exchange key
+     * @param symbol      the symbol
+     * @param fields      the fields to fetch
+     * @return a future of the fields fetched
+     */
+    public static CompletableFuture<Map<String, String>> fetchFieldsAsync(String exchangeKey, String symbol, List<FieldKey> fields) {
         String urlStr = buildUrl(exchangeKey, symbol, fields);
         return fetchFieldsFromAPI(urlStr, fields);
     }
@@ -59,28 +87,32 @@ public class FieldFetcher {
         return BASE_URL + Utils.buildUrlParameters(params);
     }
 
-    private static String fetchFieldFromAPI(String urlStr, FieldKey field) {
+    private static CompletableFuture<String> fetchFieldFromAPI(String urlStr, FieldKey field) {
         String key = field.getKey();
-        try {
-            JsonNode jsonNode = fetchFromAPI(urlStr);
-            JsonNode fieldNode = jsonNode.get(key);
+        return fetchFromAPI(urlStr).handle((jsonNode, e) -> {
+            if (e != null) {
+                log.warn("Error fetching {} from URL: {}", key, urlStr, e);
+                return null;
+            }
 
+            JsonNode fieldNode = jsonNode.get(key);
             if (fieldNode != null && !fieldNode.isNull()) {
                 return fieldNode.asText();
             } else {
                 log.warn("{} not found in the response for URL: {}", key, urlStr);
                 return null;
             }
-        } catch (Exception e) {
-            log.warn("Error fetching {} from URL: {}", key, urlStr, e);
-            return null;
-        }
+        });
     }
 
-    private static Map<String, String> fetchFieldsFromAPI(String urlStr, List<FieldKey> fields) {
-        Map<String, String> result = new HashMap<>();
-        try {
-            JsonNode jsonNode = fetchFromAPI(urlStr);
+    private static CompletableFuture<Map<String, String>> fetchFieldsFromAPI(String urlStr, List<FieldKey> fields) {
+        return fetchFromAPI(urlStr).handle((jsonNode, e) -> {
+            Map<String, String> result = new HashMap<>();
+            if (e != null) {
+                log.warn("Error fetching fields from URL: {}", urlStr, e);
+                return result;
+            }
+
             for (FieldKey field : fields) {
                 String key = field.getKey();
                 JsonNode fieldNode = jsonNode.get(key);
@@ -91,27 +123,33 @@ public class FieldFetcher {
                     result.put(key, null);
                 }
             }
-        } catch (Exception e) {
-            log.warn("Error fetching fields from URL: {}", urlStr, e);
-        }
-        return result;
+            return result;
+        });
     }
 
     /**
      * Fetches the JSON data from the TradingView API.
      *
      * @param urlStr the URL to fetch the data from
-     * @return the JSON data
-     * @throws Exception if an error occurs while fetching the data
+     * @return a future of the JSON data, failing if an error occurs while fetching the data
      */
-    private static JsonNode fetchFromAPI(String urlStr) throws Exception {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(new URI(urlStr))
-                .GET()
-                .build();
-
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.readTree(response.body());
+    private static CompletableFuture<JsonNode> fetchFromAPI(String urlStr) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                    .uri(URI.create(urlStr))
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            try {
+                return objectMapper.readTree(response.body());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
     }
 }
@@ -86,6 +86,17 @@ public class StockScreener {
         return addFilter(StockField.NAME, Filter.Operator.MATCH, name);
     }
 
+    /**
+     * Limits the rows returned to the given range of the sorted results.
+     *
+     * @param from the index of the first row (inclusive)
+     * @param to   the index of the last row (exclusive)
+     * @return this screener
+     */
+    public StockScreener withRange(int from, int to) {
+        return withMisc("range", List.of(from, to));
+    }
+
     public StockScreener withPriceConversion(String currency) {
         return withMisc("price_conversion", Map.of("to_currency", currency));
     }
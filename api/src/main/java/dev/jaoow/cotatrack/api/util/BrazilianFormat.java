@@ -0,0 +1,108 @@
+package dev.jaoow.cotatrack.api.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the number and date formats used by B3, e.g. {@code "1.234,56"} and {@code "29/12/2023"}.
+ * ISO values, e.g. {@code "1234.56"} and {@code "2023-12-29"}, are accepted as well.
+ */
+@UtilityClass
+public class BrazilianFormat {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Parses a decimal number.
+     *
+     * @param value the value, with a comma as the decimal separator and optionally dots as grouping separators
+     * @return the number, or null if the value is blank
+     * @throws NumberFormatException if the value isn't a number
+     */
+    public static BigDecimal parseDecimal(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        String trimmed = value.trim();
+        if (trimmed.indexOf(',') >= 0) {
+            trimmed = trimmed.replace(".", "").replace(',', '.');
+        }
+        return new BigDecimal(trimmed);
+    }
+
+    /**
+     * Parses a date.
+     *
+     * @param value the value, as dd/MM/yyyy
+     * @return the date, or null if the value is blank
+     * @throws DateTimeParseException if the value isn't a date
+     */
+    public static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        String trimmed = value.trim();
+        // B3 sometimes sends a date-time, of which only the date is kept
+        String date = trimmed.substring(0, Math.min(trimmed.length(), 10));
+        return date.indexOf('/') >= 0 ? LocalDate.parse(date, DATE_FORMAT) : LocalDate.parse(date);
+    }
+
+    /**
+     * Reads a decimal number in the B3 format, or as a JSON number. Values that can't be parsed are read as null.
+     */
+    public static class DecimalDeserializer extends JsonDeserializer<BigDecimal> {
+
+        @Override
+        public BigDecimal deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT || parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+                return parser.getDecimalValue();
+            }
+
+            try {
+                return parseDecimal(parser.getValueAsString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reads a date in the B3 format, or in the ISO format. Values that can't be parsed are read as null.
+     */
+    public static class DateDeserializer extends JsonDeserializer<LocalDate> {
+
+        @Override
+        public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            try {
+                return parseDate(parser.getValueAsString());
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Writes a date in the ISO format, whether or not the mapper has the Java time module registered.
+     */
+    public static class DateSerializer extends JsonSerializer<LocalDate> {
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(value.toString());
+        }
+    }
+}
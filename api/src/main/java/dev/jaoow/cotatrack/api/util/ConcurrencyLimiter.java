@@ -0,0 +1,110 @@
+package dev.jaoow.cotatrack.api.util;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many asynchronous tasks run at the same time, queueing the remaining ones.
+ * <p>
+ * Tasks are never blocked on a thread: a queued task is started by the completion of a running one.
+ * Tasks handed over while the thread is already starting queued tasks are started in a loop rather than recursively,
+ * so a long queue of tasks completing synchronously doesn't grow the stack.
+ * </p>
+ */
+public class ConcurrencyLimiter {
+
+    public static final int DEFAULT_MAX_CONCURRENT_PER_HOST = Integer.getInteger("cotatrack.http.maxConcurrentPerHost", 8);
+
+    private static final Map<String, ConcurrencyLimiter> hostLimiters = new ConcurrentHashMap<>();
+    // Queued tasks handed over on the current thread, while it's starting queued tasks
+    private static final ThreadLocal<Queue<Runnable>> handoffs = new ThreadLocal<>();
+
+    private final int maxConcurrent;
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    private int running;
+
+    public ConcurrencyLimiter(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    /**
+     * Gets the limiter shared by all the requests sent to the given host.
+     *
+     * @param host the host the requests are sent to
+     * @return the limiter of the host
+     */
+    public static ConcurrencyLimiter forHost(String host) {
+        return hostLimiters.computeIfAbsent(host, key -> new ConcurrencyLimiter(DEFAULT_MAX_CONCURRENT_PER_HOST));
+    }
+
+    /**
+     * Submits a task, starting it as soon as there is a free slot.
+     *
+     * @param task the task to start
+     * @param <T>  the type of the result
+     * @return a future completed with the result of the task
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> future;
+            try {
+                future = task.get();
+            } catch (Throwable e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            future.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        synchronized (this) {
+            if (running >= maxConcurrent) {
+                queue.add(start);
+                return result;
+            }
+            running++;
+        }
+
+        start.run();
+        return result;
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+
+        // The slot is handed over to the next task, started by the outermost release of this thread
+        Queue<Runnable> pending = handoffs.get();
+        if (pending != null) {
+            pending.add(next);
+            return;
+        }
+
+        pending = new ArrayDeque<>();
+        handoffs.set(pending);
+        try {
+            do {
+                next.run();
+            } while ((next = pending.poll()) != null);
+        } finally {
+            handoffs.remove();
+        }
+    }
+}
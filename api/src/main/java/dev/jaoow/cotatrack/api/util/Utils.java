@@ -1,8 +1,12 @@
 package dev.jaoow.cotatrack.api.util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class Utils {
@@ -20,4 +24,26 @@ public class Utils {
             return key + "=" + value;
         }).collect(Collectors.joining("&"));
     }
+
+    /**
+     * Waits for the future to complete, rethrowing the I/O error it failed with, if any.
+     *
+     * @param future the future to wait for
+     * @param <T>    the type of the result
+     * @return the result of the future
+     * @throws IOException if the future failed with an I/O error
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package dev.jaoow.cotatrack.api.indicator;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IndicatorSeriesTest {
+
+    private static final String SYMBOL = "PETR4.SA";
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+    private static final double DELTA = 1e-9;
+    private static final double NaN = Double.NaN;
+
+    private static HistoricalSeries closes(double... closes) {
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(closes.length);
+        long start = LocalDate.of(2024, 3, 4).atStartOfDay(ZONE).toEpochSecond();
+        for (int i = 0; i < closes.length; i++) {
+            builder.add(start + i * 86_400L, closes[i], closes[i], closes[i], closes[i], closes[i], 100);
+        }
+        return builder.build();
+    }
+
+    private static double[] compute(String indicator, String output, HistoricalSeries series) {
+        return IndicatorSeries.compute(series, List.of(IndicatorSpec.parse(indicator)), SYMBOL).getValues().get(output);
+    }
+
+    @Test
+    void simpleMovingAverage() {
+        assertArrayEquals(new double[]{NaN, NaN, 2, 3, 4}, compute("sma:3", "sma:3", closes(1, 2, 3, 4, 5)), DELTA);
+    }
+
+    @Test
+    void exponentialMovingAverageIsSeededWithTheSimpleAverage() {
+        assertArrayEquals(new double[]{NaN, NaN, 2, 3, 4, 4}, compute("ema:3", "ema:3", closes(1, 2, 3, 4, 5, 4)), DELTA);
+    }
+
+    @Test
+    void relativeStrengthIndexUsesWilderSmoothing() {
+        assertArrayEquals(new double[]{NaN, NaN, 100, 50}, compute("rsi:2", "rsi:2", closes(1, 2, 3, 2)), DELTA);
+    }
+
+    @Test
+    void bollingerBandsUseThePopulationDeviation() {
+        HistoricalSeries series = closes(1, 3);
+
+        assertArrayEquals(new double[]{NaN, 2}, compute("bb:2:2", "bb:2:2.middle", series), DELTA);
+        assertArrayEquals(new double[]{NaN, 4}, compute("bb:2:2", "bb:2:2.upper", series), DELTA);
+        assertArrayEquals(new double[]{NaN, 0}, compute("bb:2:2", "bb:2:2.lower", series), DELTA);
+    }
+
+    @Test
+    void volumeWeightedAveragePriceStartsOverEverySession() {
+        long open = LocalDate.of(2024, 3, 4).atTime(10, 0).atZone(ZONE).toEpochSecond();
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(3);
+        builder.add(open, 10, 10, 10, 10, 10, 100);
+        builder.add(open + 3_600, 20, 20, 20, 20, 20, 300);
+        builder.add(open + 86_400, 30, 30, 30, 30, 30, 10);
+
+        assertArrayEquals(new double[]{10, 17.5, 30}, compute("vwap", "vwap", builder.build()), DELTA);
+    }
+
+    @Test
+    void warmUpBarsAreComputedButNotReturned() {
+        HistoricalSeries series = closes(1, 2, 3, 4, 5);
+
+        IndicatorSeries indicators = IndicatorSeries.compute(series, List.of(IndicatorSpec.parse("sma:3")), SYMBOL, 2);
+
+        assertArrayEquals(new long[]{series.getTimestamp(2), series.getTimestamp(3), series.getTimestamp(4)}, indicators.getTimestamps());
+        assertArrayEquals(new double[]{2, 3, 4}, indicators.getValues().get("sma:3"), DELTA);
+    }
+
+    @Test
+    void warmUpBarsCoverSeveralPeriodsOfTheRecursiveIndicators() {
+        assertEquals(50, IndicatorSpec.parse("sma:50").getWarmUpBars());
+        assertEquals(20, IndicatorSpec.parse("bb:20:2").getWarmUpBars());
+        assertEquals(40, IndicatorSpec.parse("ema:10").getWarmUpBars());
+        assertEquals(56, IndicatorSpec.parse("rsi").getWarmUpBars());
+        assertEquals(0, IndicatorSpec.parse("vwap").getWarmUpBars());
+    }
+
+    @Test
+    void warmedUpValuesAreCloseToTheValuesOfTheWholeSeries() {
+        double[] closes = new double[400];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = 100 + 10 * Math.sin(i / 7.0) + (i * 37 % 11) - 5;
+        }
+        HistoricalSeries series = closes(closes);
+
+        for (String indicator : List.of("ema:14", "rsi:14")) {
+            IndicatorSpec spec = IndicatorSpec.parse(indicator);
+            int windowStart = 300;
+            int warmUpStart = windowStart - spec.getWarmUpBars();
+
+            double[] whole = compute(indicator, indicator, series);
+            double[] warmedUp = IndicatorSeries.compute(series.slice(series.getTimestamp(warmUpStart), Long.MAX_VALUE),
+                    List.of(spec), SYMBOL, windowStart - warmUpStart).getValues().get(indicator);
+
+            // Both are within a small fraction of the range of their values
+            for (int i = 0; i < warmedUp.length; i++) {
+                assertEquals(whole[windowStart + i], warmedUp[i], indicator.startsWith("ema") ? 0.05 : 1, indicator);
+            }
+        }
+    }
+
+    @Test
+    void parsesSpecsRegardlessOfTheLocale() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals(IndicatorType.RSI, IndicatorSpec.parse("RSI").type());
+            assertEquals(IndicatorType.VWAP, IndicatorSpec.parse("VWAP").type());
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    void rejectsInvalidMultipliers() {
+        assertEquals(2.5, IndicatorSpec.parse("bb:20:2.5").multiplier());
+        for (String spec : List.of("bb:20:NaN", "bb:20:Infinity", "bb:20:-2", "bb:20:0", "bb:20:x", "sma:0")) {
+            assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse(spec), spec);
+        }
+    }
+}
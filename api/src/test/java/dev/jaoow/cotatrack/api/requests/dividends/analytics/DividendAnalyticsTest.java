@@ -0,0 +1,103 @@
+package dev.jaoow.cotatrack.api.requests.dividends.analytics;
+
+import dev.jaoow.cotatrack.api.requests.dividends.model.CashDividend;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import dev.jaoow.cotatrack.api.requests.dividends.model.StockDividend;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DividendAnalyticsTest {
+
+    private static final String PREFERRED = "BRPETRACNPR6";
+    private static final String COMMON = "BRPETRACNOR9";
+    private static final LocalDate TODAY = LocalDate.of(2024, 7, 1);
+    private static final double DELTA = 1e-9;
+
+    private static CashDividend cash(String isin, String label, String rate, LocalDate lastDatePrior) {
+        CashDividend dividend = new CashDividend();
+        dividend.setAssetIssued(isin);
+        dividend.setIsinCode(isin);
+        dividend.setLabel(label);
+        dividend.setRate(new BigDecimal(rate));
+        dividend.setApprovedOn(lastDatePrior.minusDays(20));
+        dividend.setLastDatePrior(lastDatePrior);
+        dividend.setPaymentDate(lastDatePrior.plusDays(30));
+        return dividend;
+    }
+
+    private static StockDividend split(String factor, LocalDate lastDatePrior) {
+        StockDividend dividend = new StockDividend();
+        dividend.setAssetIssued(PREFERRED);
+        dividend.setIsinCode(PREFERRED);
+        dividend.setLabel("DESDOBRAMENTO");
+        dividend.setFactor(new BigDecimal(factor));
+        dividend.setApprovedOn(lastDatePrior.minusDays(20));
+        dividend.setLastDatePrior(lastDatePrior);
+        return dividend;
+    }
+
+    @Test
+    void sameDayDividendAndInterestOnEquityAreSeparatePayments() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        DividendsData data = new DividendsData(List.of(
+                cash(PREFERRED, "DIVIDENDO", "0.50", day),
+                cash(PREFERRED, "JRS CAP PROPRIO", "0.50", day),
+                cash(COMMON, "DIVIDENDO", "0.70", day),
+                cash(PREFERRED, "DIVIDENDO", "0.20", TODAY.plusDays(5))
+        ), List.of());
+
+        DividendSummary summary = DividendAnalytics.compute("PETR4.SA", data, TODAY);
+
+        assertEquals(2, summary.getPaymentsPerYear());
+        assertEquals(1.0, summary.getTtmPerShare(), DELTA);
+        assertNull(summary.getTtmYield());
+    }
+
+    @Test
+    void paymentsBeforeASplitAreInTheCurrentShareBasis() {
+        // A 100% split turns each share into two
+        DividendsData data = new DividendsData(
+                List.of(cash(PREFERRED, "DIVIDENDO", "1.00", LocalDate.of(2023, 9, 1)),
+                        cash(PREFERRED, "DIVIDENDO", "0.50", LocalDate.of(2024, 5, 2))),
+                List.of(split("100", LocalDate.of(2024, 1, 10))));
+
+        DividendSummary summary = DividendAnalytics.compute("PETR4.SA", data, TODAY);
+
+        assertEquals(1.0, summary.getTtmPerShare(), DELTA);
+        assertEquals(2, summary.getPaymentsPerYear());
+    }
+
+    @Test
+    void cagrIsOverTheFullYearsBeforeToday() {
+        DividendsData data = new DividendsData(List.of(
+                cash(PREFERRED, "DIVIDENDO", "1.00", LocalDate.of(2020, 6, 1)),
+                cash(PREFERRED, "DIVIDENDO", "2.00", LocalDate.of(2022, 6, 1)),
+                cash(PREFERRED, "DIVIDENDO", "2.00", LocalDate.of(2023, 6, 1)),
+                cash(PREFERRED, "DIVIDENDO", "9.00", LocalDate.of(2024, 6, 1))
+        ), List.of());
+
+        DividendSummary summary = DividendAnalytics.compute("PETR4.SA", data, TODAY);
+
+        assertEquals(3, summary.getCagrYears());
+        assertEquals(Math.pow(2.0, 1.0 / 3) - 1, summary.getCagr(), DELTA);
+    }
+
+    @Test
+    void noCagrWithoutPaymentsLastYear() {
+        DividendsData data = new DividendsData(List.of(
+                cash(PREFERRED, "DIVIDENDO", "1.00", LocalDate.of(2021, 6, 1)),
+                cash(PREFERRED, "DIVIDENDO", "1.00", LocalDate.of(2024, 6, 1))
+        ), List.of());
+
+        DividendSummary summary = DividendAnalytics.compute("PETR4.SA", data, TODAY);
+
+        assertNull(summary.getCagr());
+        assertNull(summary.getCagrYears());
+    }
+}
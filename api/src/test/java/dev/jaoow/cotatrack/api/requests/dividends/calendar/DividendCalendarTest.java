@@ -0,0 +1,90 @@
+package dev.jaoow.cotatrack.api.requests.dividends.calendar;
+
+import dev.jaoow.cotatrack.api.requests.dividends.model.CashDividend;
+import dev.jaoow.cotatrack.api.requests.dividends.model.DividendsData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DividendCalendarTest {
+
+    // The calendar is shared, so each test loads its own companies
+    private static CashDividend cash(String isin, LocalDate lastDatePrior, LocalDate paymentDate) {
+        CashDividend dividend = new CashDividend();
+        dividend.setAssetIssued(isin);
+        dividend.setIsinCode(isin);
+        dividend.setLabel("DIVIDENDO");
+        dividend.setRate(BigDecimal.ONE);
+        dividend.setApprovedOn(lastDatePrior.minusDays(20));
+        dividend.setLastDatePrior(lastDatePrior);
+        dividend.setPaymentDate(paymentDate);
+        return dividend;
+    }
+
+    private static List<String> companies(List<DividendEvent> events, String... companies) {
+        List<String> codes = List.of(companies);
+        return events.stream().map(DividendEvent::issuingCompany).filter(codes::contains).toList();
+    }
+
+    @Test
+    void eventsBetweenIncludeBothEndsByExDate() {
+        // Last dates prior on Fridays, so the ex-dates are on the following Mondays
+        DividendCalendar.update("EXDA", new DividendsData(List.of(
+                cash("BREXDAACNPR1", LocalDate.of(2031, 3, 7), null),
+                cash("BREXDAACNPR1", LocalDate.of(2031, 3, 21), null)), List.of()));
+        DividendCalendar.update("EXDB", new DividendsData(List.of(
+                cash("BREXDBACNOR1", LocalDate.of(2031, 3, 14), null)), List.of()));
+
+        List<DividendEvent> events = DividendCalendar.getEventsBetween(LocalDate.of(2031, 3, 10), LocalDate.of(2031, 3, 17));
+
+        assertEquals(List.of("EXDA", "EXDB"), companies(events, "EXDA", "EXDB"));
+        assertEquals(LocalDate.of(2031, 3, 10), events.get(0).exDate());
+        assertEquals(List.of(), DividendCalendar.getEventsBetween(LocalDate.of(2031, 3, 18), LocalDate.of(2031, 3, 23)));
+    }
+
+    @Test
+    void paymentsBetweenAreSortedByPaymentDate() {
+        DividendCalendar.update("PAYA", new DividendsData(List.of(
+                cash("BRPAYAACNPR1", LocalDate.of(2032, 1, 5), LocalDate.of(2032, 2, 20)),
+                cash("BRPAYAACNPR1", LocalDate.of(2032, 1, 6), LocalDate.of(2032, 2, 10)),
+                cash("BRPAYAACNPR1", LocalDate.of(2032, 1, 7), null)), List.of()));
+
+        List<DividendEvent> payments = DividendCalendar.getPaymentsBetween(LocalDate.of(2032, 2, 10), LocalDate.of(2032, 2, 20));
+
+        assertEquals(2, payments.size());
+        assertEquals(LocalDate.of(2032, 2, 10), payments.get(0).paymentDate());
+        assertEquals(LocalDate.of(2032, 2, 20), payments.get(1).paymentDate());
+    }
+
+    @Test
+    void updateReplacesTheEventsOfACompany() {
+        DividendCalendar.update("REPL", new DividendsData(List.of(
+                cash("BRREPLACNPR1", LocalDate.of(2033, 5, 2), LocalDate.of(2033, 6, 1))), List.of()));
+        DividendCalendar.update("REPL", new DividendsData(List.of(
+                cash("BRREPLACNPR1", LocalDate.of(2033, 5, 2), LocalDate.of(2033, 6, 15))), List.of()));
+
+        List<DividendEvent> payments = DividendCalendar.getPaymentsBetween(LocalDate.of(2033, 6, 1), LocalDate.of(2033, 6, 30));
+
+        assertEquals(1, companies(payments, "REPL").size());
+        assertEquals(LocalDate.of(2033, 6, 15), payments.get(0).paymentDate());
+    }
+
+    @Test
+    void nextPaymentIsOfTheShareClassOfTheSymbol() {
+        DividendCalendar.update("NEXT", new DividendsData(List.of(
+                cash("BRNEXTACNPR1", LocalDate.of(2034, 1, 2), LocalDate.of(2034, 2, 1)),
+                cash("BRNEXTACNOR1", LocalDate.of(2034, 1, 2), LocalDate.of(2034, 3, 1)),
+                cash("BRNEXTACNPR1", LocalDate.of(2034, 1, 2), LocalDate.of(2034, 4, 1))), List.of()));
+
+        assertEquals(LocalDate.of(2034, 2, 1), DividendCalendar.getNextPayment("NEXT4.SA", LocalDate.of(2034, 2, 1)).paymentDate());
+        assertEquals(LocalDate.of(2034, 4, 1), DividendCalendar.getNextPayment("NEXT4.SA", LocalDate.of(2034, 2, 2)).paymentDate());
+        assertEquals(LocalDate.of(2034, 3, 1), DividendCalendar.getNextPayment("NEXT3.SA", LocalDate.of(2034, 1, 1)).paymentDate());
+        assertNull(DividendCalendar.getNextPayment("NEXT4.SA", LocalDate.of(2034, 4, 2)));
+        assertNull(DividendCalendar.getNextPayment("NONE4.SA", LocalDate.of(2034, 1, 1)));
+    }
+}
@@ -0,0 +1,68 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartResponseParserTest {
+
+    private static ChartResponseParser.Chart parse(String json) throws IOException {
+        return ChartResponseParser.parse(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String chart(String timestamps, String closes, String volumes) {
+        return "{'chart':{'result':[{'meta':{'symbol':'PETR4.SA'},'timestamp':[" + timestamps + "],"
+                + "'events':{'dividends':{'1700':{'amount':0.5,'date':1700}},'splits':{'1500':{'date':1500,'numerator':2}}},"
+                + "'indicators':{'quote':[{'open':[" + closes + "],'high':[" + closes + "],'low':[" + closes + "],"
+                + "'close':[" + closes + "],'volume':[" + volumes + "]}],'adjclose':[{'adjclose':[" + closes + "]}]}}],"
+                + "'error':null}}";
+    }
+
+    @Test
+    void readsTheColumnsAndTheEvents() throws IOException {
+        ChartResponseParser.Chart chart = parse(chart("1000,2000,3000", "1.5,null,3", "10,null,30"));
+
+        HistoricalSeries bars = chart.bars();
+        assertEquals(3, bars.size());
+        assertEquals(1.5, bars.getClose(0));
+        assertTrue(Double.isNaN(bars.getClose(1)));
+        assertEquals(HistoricalSeries.MISSING_VOLUME, bars.getVolume(1));
+        assertEquals(3, bars.getAdjClose(2));
+        assertArrayEquals(new long[]{1700, 1500}, chart.eventTimes());
+        assertEquals(1500, chart.getLastEventTime(1600));
+        assertEquals(Long.MIN_VALUE, chart.getLastEventTime(1000));
+    }
+
+    @Test
+    void keepsTheLastValueOfARepeatedTrailingBar() throws IOException {
+        // Yahoo repeats the live bar with the time of the last bar
+        HistoricalSeries bars = parse(chart("1000,2000,3000,3000", "1,2,3,3.5", "10,20,30,35")).bars();
+
+        assertEquals(3, bars.size());
+        assertEquals(3000, bars.getTimestamp(2));
+        assertEquals(3.5, bars.getClose(2));
+        assertEquals(35, bars.getVolume(2));
+    }
+
+    @Test
+    void dropsBarsOlderThanThePreviousOnes() throws IOException {
+        HistoricalSeries bars = parse(chart("1000,2000,3000,2500,2000", "1,2,3,4,5", "10,20,30,40,50")).bars();
+
+        assertArrayEquals(new long[]{1000, 2000, 3000}, new long[]{bars.getTimestamp(0), bars.getTimestamp(1), bars.getTimestamp(2)});
+        assertEquals(3, bars.size());
+        assertEquals(5, bars.getClose(1));
+    }
+
+    @Test
+    void responsesWithoutResultHaveNoBars() throws IOException {
+        assertTrue(parse("{'chart':{'result':null,'error':{'code':'Not Found'}}}").bars().isEmpty());
+        assertThrows(IOException.class, () -> parse("[]"));
+    }
+}
@@ -0,0 +1,96 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.adjust;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdjustedSeriesTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 3, 4);
+    private static final double DELTA = 1e-9;
+
+    // Split-adjusted bars, closing at 10 every day
+    private static HistoricalSeries bars(int days) {
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(days);
+        for (int day = 0; day < days; day++) {
+            long timestamp = FIRST_DAY.plusDays(day).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+            builder.add(timestamp, 10, 10, 10, 10, 10, 1_000);
+        }
+        return builder.build();
+    }
+
+    private static CorporateEvent cash(int lastDatePrior, double amount, String source) {
+        return new CorporateEvent(FIRST_DAY.plusDays(lastDatePrior), CorporateEvent.Kind.CASH, amount, source);
+    }
+
+    private static CorporateEvent split(int lastDatePrior, double shares) {
+        return new CorporateEvent(FIRST_DAY.plusDays(lastDatePrior), CorporateEvent.Kind.SHARES, shares, "split");
+    }
+
+    @Test
+    void sameDayPaymentsAreBothApplied() {
+        List<CorporateEvent> events = List.of(cash(1, 0.5, "dividend"), cash(1, 0.5, "interest on equity"));
+
+        HistoricalSeries adjusted = AdjustedSeries.of(bars(4), events, ZoneOffset.UTC, true).toSeries();
+
+        assertEquals(10 * 0.95 * 0.95, adjusted.getClose(0), DELTA);
+        assertEquals(10 * 0.95 * 0.95, adjusted.getClose(1), DELTA);
+        assertEquals(10, adjusted.getClose(2), DELTA);
+        assertEquals(10, adjusted.getAdjClose(3), DELTA);
+    }
+
+    @Test
+    void paymentsBeforeASplitAreScaledToTheSplitAdjustedPrices() {
+        // Each payment of 1 before the 2-for-1 split is 0.5 per current share
+        List<CorporateEvent> events = List.of(cash(0, 1, "dividend"), cash(0, 1, "interest on equity"), split(2, 2));
+
+        HistoricalSeries adjusted = AdjustedSeries.of(bars(4), events, ZoneOffset.UTC, true).toSeries();
+
+        assertEquals(10 * 0.95 * 0.95, adjusted.getClose(0), DELTA);
+        assertEquals(10, adjusted.getClose(1), DELTA);
+        // Split-adjusted volumes aren't scaled again
+        assertEquals(1_000, adjusted.getVolume(0));
+    }
+
+    @Test
+    void splitsScaleUnadjustedPricesAndVolumes() {
+        HistoricalSeries adjusted = AdjustedSeries.of(bars(4), List.of(split(1, 2)), ZoneOffset.UTC, false).toSeries();
+
+        assertEquals(5, adjusted.getClose(1), DELTA);
+        assertEquals(2_000, adjusted.getVolume(1));
+        assertEquals(10, adjusted.getClose(2), DELTA);
+        assertEquals(1_000, adjusted.getVolume(2));
+    }
+
+    @Test
+    void newEventsOnlyRescaleTheBarsBeforeThem() {
+        AdjustedSeries series = AdjustedSeries.of(bars(4), List.of(split(2, 2)), ZoneOffset.UTC, true);
+
+        assertTrue(series.apply(List.of(split(2, 2), cash(0, 1, "dividend"), cash(0, 1, "interest on equity"))));
+
+        HistoricalSeries adjusted = series.toSeries();
+        assertEquals(10 * 0.95 * 0.95, adjusted.getClose(0), DELTA);
+        assertEquals(10, adjusted.getClose(1), DELTA);
+    }
+
+    @Test
+    void cashEventsAfterTheLastBarWaitForItsClose() {
+        AdjustedSeries series = AdjustedSeries.of(bars(2), List.of(cash(3, 1, "dividend")), ZoneOffset.UTC, true);
+
+        assertEquals(10, series.toSeries().getClose(0), DELTA);
+    }
+
+    @Test
+    void eventsFromTheSameB3EntryAreTheSameEvent() {
+        AdjustedSeries series = AdjustedSeries.of(bars(4), List.of(cash(1, 0.5, "dividend")), ZoneOffset.UTC, true);
+
+        assertTrue(series.apply(cash(1, 0.5, "dividend")));
+        assertEquals(10 * 0.95, series.toSeries().getClose(0), DELTA);
+    }
+}
@@ -0,0 +1,73 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.cache;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedBarsTest {
+
+    private static HistoricalSeries bars(long from, long to, double price) {
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(10);
+        for (long timestamp = from; timestamp < to; timestamp += 10) {
+            builder.add(timestamp, price, price, price, price, price, 1);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void missingRangesAreThePartsNotCoveredYet() {
+        CachedBars cachedBars = new CachedBars();
+        cachedBars.add(new TimeRange(100, 200), bars(100, 200, 1), new TimeRange(100, 200), 1_000);
+
+        assertEquals(List.of(new TimeRange(0, 100), new TimeRange(200, 300)),
+                cachedBars.getMissingRanges(new TimeRange(0, 300)));
+        assertEquals(List.of(), cachedBars.getMissingRanges(new TimeRange(120, 180)));
+    }
+
+    @Test
+    void barsThatMayStillChangeAreNotCovered() {
+        CachedBars cachedBars = new CachedBars();
+        cachedBars.add(new TimeRange(0, 100), bars(0, 100, 1), new TimeRange(0, 50), 1_000);
+
+        assertEquals(List.of(new TimeRange(50, 100)), cachedBars.getMissingRanges(new TimeRange(0, 100)));
+        assertEquals(10, cachedBars.getSeries(new TimeRange(0, 100)).size());
+    }
+
+    @Test
+    void addReplacesTheBarsWithinTheFetchedRange() {
+        CachedBars cachedBars = new CachedBars();
+        cachedBars.add(new TimeRange(0, 100), bars(0, 100, 1), new TimeRange(0, 100), 1_000);
+        cachedBars.add(new TimeRange(50, 150), bars(50, 150, 2), new TimeRange(50, 150), 1_000);
+
+        HistoricalSeries series = cachedBars.getSeries();
+        assertEquals(15, series.size());
+        assertEquals(1, series.getClose(4));
+        assertEquals(2, series.getClose(5));
+    }
+
+    @Test
+    void clearDropsTheBarsFetchedBeforeAnEvent() {
+        CachedBars cachedBars = new CachedBars();
+        cachedBars.add(new TimeRange(0, 100), bars(0, 100, 1), new TimeRange(0, 100), 1_000);
+
+        assertTrue(cachedBars.isFetchedBefore(2_000));
+        assertFalse(cachedBars.isFetchedBefore(500));
+
+        cachedBars.clear(2_000);
+        assertTrue(cachedBars.getSeries().isEmpty());
+        assertEquals(List.of(new TimeRange(0, 100)), cachedBars.getMissingRanges(new TimeRange(0, 100)));
+
+        // A fetch still in flight from before the event isn't added anymore
+        cachedBars.add(new TimeRange(0, 100), bars(0, 100, 1), new TimeRange(0, 100), 1_500);
+        assertTrue(cachedBars.getSeries().isEmpty());
+
+        cachedBars.add(new TimeRange(0, 100), bars(0, 100, 2), new TimeRange(0, 100), 2_500);
+        assertEquals(10, cachedBars.size());
+        assertFalse(cachedBars.isFetchedBefore(2_000));
+    }
+}
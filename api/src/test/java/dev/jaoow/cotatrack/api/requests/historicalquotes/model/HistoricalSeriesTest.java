@@ -0,0 +1,67 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoricalSeriesTest {
+
+    static HistoricalSeries series(long... timestamps) {
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(timestamps.length);
+        for (long timestamp : timestamps) {
+            builder.add(timestamp, timestamp, timestamp, timestamp, timestamp, timestamp, timestamp);
+        }
+        return builder.build();
+    }
+
+    static long[] timestamps(HistoricalSeries series) {
+        long[] timestamps = new long[series.size()];
+        for (int i = 0; i < series.size(); i++) {
+            timestamps[i] = series.getTimestamp(i);
+        }
+        return timestamps;
+    }
+
+    @Test
+    void sliceKeepsTheBarsFromStartUntilEnd() {
+        HistoricalSeries series = series(10, 20, 30, 40);
+
+        assertArrayEquals(new long[]{20, 30}, timestamps(series.slice(20, 40)));
+        assertArrayEquals(new long[]{10, 20, 30, 40}, timestamps(series.slice(0, 100)));
+        assertTrue(series.slice(41, 100).isEmpty());
+    }
+
+    @Test
+    void mergeInterleavesTheBarsAndPrefersTheOtherSeries() {
+        HistoricalSeries series = series(10, 30);
+        HistoricalSeries.Builder other = HistoricalSeries.builder(2);
+        other.add(20, 2, 2, 2, 2, 2, 2);
+        other.add(30, 3, 3, 3, 3, 3, 3);
+
+        HistoricalSeries merged = series.merge(other.build());
+
+        assertArrayEquals(new long[]{10, 20, 30}, timestamps(merged));
+        assertEquals(3, merged.getClose(2));
+    }
+
+    @Test
+    void mergeWithAnEmptySeriesReturnsTheOtherOne() {
+        HistoricalSeries series = series(10, 20);
+
+        assertSame(series, series.merge(HistoricalSeries.EMPTY));
+        assertSame(series, HistoricalSeries.EMPTY.merge(series));
+    }
+
+    @Test
+    void indexOfFindsTheFirstBarAtOrAfterTheTimestamp() {
+        HistoricalSeries series = series(10, 20, 30);
+
+        assertEquals(0, series.indexOf(5));
+        assertEquals(1, series.indexOf(20));
+        assertEquals(2, series.indexOf(25));
+        assertEquals(3, series.indexOf(35));
+    }
+}
@@ -0,0 +1,76 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.resample;
+
+import dev.jaoow.cotatrack.api.market.ExchangeCalendar;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BarResamplerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+    private static final ExchangeCalendar CALENDAR = new ExchangeCalendar(ZONE, LocalTime.of(10, 0), LocalTime.of(18, 0), Set.of());
+
+    private static long at(LocalDateTime time) {
+        return time.atZone(ZONE).toEpochSecond();
+    }
+
+    @Test
+    void sourcesAreTheFinerIntervalsDividingTheTarget() {
+        assertEquals(List.of(Interval.ONE_DAY), BarResampler.getSources(Interval.ONE_WEEK));
+        assertEquals(List.of(Interval.ONE_MONTH, Interval.ONE_DAY), BarResampler.getSources(Interval.THREE_MONTHS));
+        assertEquals(List.of(Interval.ONE_MINUTE, Interval.FIVE_MINUTES), BarResampler.getSources(Interval.FIFTEEN_MINUTES));
+        assertTrue(BarResampler.getSources(Interval.ONE_DAY).isEmpty());
+    }
+
+    @Test
+    void intradayBucketsStartAtTheSessionOpen() {
+        LocalDateTime open = LocalDate.of(2024, 3, 4).atTime(10, 0);
+        HistoricalSeries.Builder bars = HistoricalSeries.builder(4);
+        bars.add(at(open), 10, 12, 9, 11, 11, 100);
+        bars.add(at(open.plusMinutes(5)), 11, 14, 10, 13, 13, 200);
+        bars.add(at(open.plusMinutes(10)), 13, 13, 8, 9, 9, HistoricalSeries.MISSING_VOLUME);
+        bars.add(at(open.plusMinutes(15)), 9, 10, 9, 10, 10, 50);
+
+        HistoricalSeries resampled = BarResampler.resample(bars.build(), Interval.FIFTEEN_MINUTES, CALENDAR);
+
+        assertEquals(2, resampled.size());
+        assertEquals(at(open), resampled.getTimestamp(0));
+        assertEquals(10, resampled.getOpen(0));
+        assertEquals(14, resampled.getHigh(0));
+        assertEquals(8, resampled.getLow(0));
+        assertEquals(9, resampled.getClose(0));
+        assertEquals(300, resampled.getVolume(0));
+        assertEquals(at(open.plusMinutes(15)), resampled.getTimestamp(1));
+    }
+
+    @Test
+    void weeklyBucketsStartOnMondaysAndAreStampedWithTheirFirstSession() {
+        HistoricalSeries.Builder bars = HistoricalSeries.builder(4);
+        // Tuesday to Friday of a week with a holiday on Monday, then the next Monday
+        for (int day = 5; day <= 8; day++) {
+            bars.add(LocalDate.of(2024, 3, day).atStartOfDay(ZoneOffset.UTC).toEpochSecond(), day, day + 1, day - 1, day, day, 10);
+        }
+        bars.add(LocalDate.of(2024, 3, 11).atStartOfDay(ZoneOffset.UTC).toEpochSecond(), 20, 21, 19, 20, 20, 10);
+
+        HistoricalSeries resampled = BarResampler.resample(bars.build(), Interval.ONE_WEEK, null);
+
+        assertEquals(2, resampled.size());
+        assertEquals(LocalDate.of(2024, 3, 5).atStartOfDay(ZoneOffset.UTC).toEpochSecond(), resampled.getTimestamp(0));
+        assertEquals(5, resampled.getOpen(0));
+        assertEquals(9, resampled.getHigh(0));
+        assertEquals(4, resampled.getLow(0));
+        assertEquals(8, resampled.getClose(0));
+        assertEquals(40, resampled.getVolume(0));
+    }
+}
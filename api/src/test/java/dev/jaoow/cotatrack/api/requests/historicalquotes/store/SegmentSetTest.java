@@ -0,0 +1,189 @@
+package dev.jaoow.cotatrack.api.requests.historicalquotes.store;
+
+import dev.jaoow.cotatrack.api.requests.historicalquotes.cache.TimeRange;
+import dev.jaoow.cotatrack.api.requests.historicalquotes.model.HistoricalSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SegmentSetTest {
+
+    private static final TimeRange ALL = new TimeRange(0, 10_000);
+
+    @TempDir
+    Path directory;
+
+    private static HistoricalSeries bars(long from, long to, double price) {
+        HistoricalSeries.Builder builder = HistoricalSeries.builder(10);
+        for (long timestamp = from; timestamp < to; timestamp += 10) {
+            builder.add(timestamp, price, price, price, price, price, 1);
+        }
+        return builder.build();
+    }
+
+    private static int countBars(List<StoredBars> stored) {
+        return stored.stream().mapToInt(bars -> bars.bars().size()).sum();
+    }
+
+    private List<String> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void readsTheWrittenBars() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 100), bars(0, 100, 1), 1_000);
+
+        List<StoredBars> stored = segments.read(new TimeRange(50, 200));
+        assertEquals(1, stored.size());
+        assertEquals(new TimeRange(50, 100), stored.get(0).range());
+        assertEquals(5, stored.get(0).bars().size());
+        assertEquals(1_000, stored.get(0).fetchedAt());
+    }
+
+    @Test
+    void writeReplacesTheSegmentsWithinItsRange() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(100, 200), bars(100, 200, 1), 1_000);
+        segments.add(new TimeRange(300, 400), bars(300, 400, 1), 1_000);
+        segments.read(ALL); // Maps the segments before they're replaced
+        segments.add(new TimeRange(0, 500), bars(0, 500, 2), 2_000);
+
+        List<StoredBars> stored = segments.read(ALL);
+        assertEquals(List.of(new TimeRange(0, 500)), stored.stream().map(StoredBars::range).toList());
+        assertEquals(2, stored.get(0).bars().getClose(15));
+        assertEquals(List.of("0_500_2000.bars"), listFiles());
+    }
+
+    @Test
+    void storedRangesArentWrittenAgain() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 200), bars(0, 200, 1), 1_000);
+        segments.add(new TimeRange(50, 150), bars(50, 150, 2), 2_000);
+
+        List<StoredBars> stored = segments.read(ALL);
+        assertEquals(1, stored.get(0).bars().getClose(10));
+        assertEquals(List.of("0_200_1000.bars"), listFiles());
+    }
+
+    @Test
+    void appendsTheBarsContinuingASegment() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 100), bars(0, 100, 1), 1_000);
+        segments.read(ALL); // Maps the segment before it's appended to
+        segments.add(new TimeRange(100, 200), bars(100, 200, 2), 2_000);
+        segments.add(new TimeRange(150, 300), bars(150, 300, 3), 3_000);
+
+        List<StoredBars> stored = segments.read(ALL);
+        assertEquals(1, stored.size());
+        assertEquals(new TimeRange(0, 300), stored.get(0).range());
+        assertEquals(30, stored.get(0).bars().size());
+        // Stored bars aren't replaced, only the later ones are appended
+        assertEquals(2, stored.get(0).bars().getClose(15));
+        assertEquals(3, stored.get(0).bars().getClose(20));
+        // The fetch time of the oldest bars is kept
+        assertEquals(1_000, stored.get(0).fetchedAt());
+        assertEquals(List.of("0_300_1000.bars"), listFiles());
+        assertEquals(30L * Segment.RECORD_SIZE, Files.size(directory.resolve("0_300_1000.bars")));
+    }
+
+    @Test
+    void appendReplacesTheSegmentsWithinTheExtendedRange() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 100), bars(0, 100, 1), 1_000);
+        segments.add(new TimeRange(200, 300), bars(200, 300, 1), 1_000);
+        segments.add(new TimeRange(100, 400), bars(100, 400, 2), 2_000);
+
+        assertEquals(List.of(new TimeRange(0, 400)), segments.getStoredRanges(ALL));
+        assertEquals(40, countBars(segments.read(ALL)));
+        assertEquals(List.of("0_400_1000.bars"), listFiles());
+    }
+
+    @Test
+    void appendOverwritesTheRecordsOfAnInterruptedAppend() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 100), bars(0, 100, 1), 1_000);
+        // Records appended before the file was renamed after the extended range
+        Path file = directory.resolve("0_100_1000.bars");
+        Segment.write(directory, new TimeRange(0, 1), bars(500, 520, 9), 0);
+        Files.write(file, Files.readAllBytes(directory.resolve("0_1_0.bars")), StandardOpenOption.APPEND);
+        Files.delete(directory.resolve("0_1_0.bars"));
+
+        SegmentSet reopened = new SegmentSet(directory, 16);
+        assertEquals(10, countBars(reopened.read(ALL)));
+        reopened.add(new TimeRange(100, 200), bars(100, 200, 2), 2_000);
+
+        HistoricalSeries stored = reopened.read(ALL).get(0).bars();
+        assertEquals(20, stored.size());
+        assertEquals(190, stored.getTimestamp(19));
+        assertEquals(20L * Segment.RECORD_SIZE, Files.size(directory.resolve("0_200_1000.bars")));
+    }
+
+    @Test
+    void compactionMergesTouchingSegmentsWithoutDuplicates() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 2);
+        segments.add(new TimeRange(100, 200), bars(100, 200, 1), 2_000);
+        // Fills the gap before the first segment, which can't be appended to
+        segments.add(new TimeRange(0, 150), bars(0, 150, 2), 1_000);
+        segments.add(new TimeRange(300, 400), bars(300, 400, 1), 3_000);
+
+        List<StoredBars> stored = segments.read(ALL);
+        assertEquals(List.of(new TimeRange(0, 200), new TimeRange(300, 400)), stored.stream().map(StoredBars::range).toList());
+        assertEquals(20, stored.get(0).bars().size());
+        // The fetch time of the oldest bars is kept
+        assertEquals(1_000, stored.get(0).fetchedAt());
+        assertEquals(List.of("0_200_1000.bars", "300_400_3000.bars"), listFiles());
+    }
+
+    @Test
+    void reopenedSetReadsTheSameSegments() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 100), bars(0, 100, 1), 1_000);
+        segments.add(new TimeRange(200, 300), bars(200, 300, 1), 1_000);
+
+        SegmentSet reopened = new SegmentSet(directory, 16);
+        assertEquals(List.of(new TimeRange(0, 100), new TimeRange(200, 300)), reopened.getStoredRanges(ALL));
+        assertEquals(20, countBars(reopened.read(ALL)));
+    }
+
+    @Test
+    void reopenedSetDropsLeftoverSegments() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 300), bars(0, 300, 1), 1_000);
+        // Left over by a delete that failed, and by a previous version without fetch times
+        Files.write(directory.resolve("100_200_500.bars"), new byte[0]);
+        Files.write(directory.resolve("400_500.bars"), new byte[0]);
+        Files.write(directory.resolve("500_600_1000.bars.tmp"), new byte[0]);
+
+        SegmentSet reopened = new SegmentSet(directory, 16);
+        List<StoredBars> stored = reopened.read(ALL);
+        assertEquals(List.of(new TimeRange(0, 300), new TimeRange(400, 500)), stored.stream().map(StoredBars::range).toList());
+        assertEquals(0, stored.get(1).fetchedAt());
+        assertEquals(List.of("0_300_1000.bars", "400_500.bars"), listFiles());
+    }
+
+    @Test
+    void invalidateDropsTheSegmentsFetchedBeforeTheEvent() throws IOException {
+        SegmentSet segments = new SegmentSet(directory, 16);
+        segments.add(new TimeRange(0, 100), bars(0, 100, 1), 1_000);
+        segments.add(new TimeRange(200, 300), bars(200, 300, 1), 3_000);
+
+        segments.invalidate(2_000);
+        assertEquals(List.of(new TimeRange(200, 300)), segments.getStoredRanges(ALL));
+
+        // A fetch still in flight from before the event isn't stored anymore
+        segments.add(new TimeRange(0, 100), bars(0, 100, 1), 1_500);
+        assertEquals(List.of(new TimeRange(200, 300)), segments.getStoredRanges(ALL));
+        assertEquals(List.of("200_300_3000.bars"), listFiles());
+    }
+}
@@ -0,0 +1,102 @@
+package dev.jaoow.cotatrack.api.requests.quotes.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuoteBatcherTest {
+
+    private final List<List<String>> batches = new ArrayList<>();
+
+    private CompletableFuture<Map<String, JsonNode>> record(Set<String> symbols) {
+        batches.add(List.copyOf(symbols));
+        return CompletableFuture.completedFuture(Map.of());
+    }
+
+    private static Map<String, CompletableFuture<JsonNode>> loads(String... symbols) {
+        Map<String, CompletableFuture<JsonNode>> loads = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            loads.put(symbol, new CompletableFuture<>());
+        }
+        return loads;
+    }
+
+    @Test
+    void splitsBatchesBySize() {
+        QuoteBatcher batcher = new QuoteBatcher(this::record, 0, 2, Integer.MAX_VALUE);
+
+        batcher.submit(loads("A", "B", "C", "D", "E"));
+
+        assertEquals(List.of(List.of("A", "B"), List.of("C", "D"), List.of("E")), batches);
+    }
+
+    @Test
+    void splitsBatchesByEncodedLength() {
+        // Each symbol takes its encoded length and the encoded comma, e.g. 5 + 3 for PETR4
+        QuoteBatcher batcher = new QuoteBatcher(this::record, 0, 100, 16);
+
+        batcher.submit(loads("PETR4", "VALE3", "ITUB4", "^BVSP"));
+
+        // ^BVSP is encoded as %5EBVSP, so it doesn't fit with ITUB4
+        assertEquals(List.of(List.of("PETR4", "VALE3"), List.of("ITUB4"), List.of("^BVSP")), batches);
+    }
+
+    @Test
+    void symbolsLongerThanTheLimitAreSentAlone() {
+        QuoteBatcher batcher = new QuoteBatcher(this::record, 0, 100, 4);
+
+        batcher.submit(loads("PETR4", "VALE3"));
+
+        assertEquals(List.of(List.of("PETR4"), List.of("VALE3")), batches);
+    }
+
+    @Test
+    void completesEachSymbolWithItsData() {
+        QuoteBatcher batcher = new QuoteBatcher(symbols -> CompletableFuture.completedFuture(Map.of("PETR4", IntNode.valueOf(1))),
+                0, 100, Integer.MAX_VALUE);
+        Map<String, CompletableFuture<JsonNode>> loads = loads("PETR4", "MISSING");
+
+        batcher.submit(loads);
+
+        assertEquals(1, loads.get("PETR4").join().intValue());
+        assertTrue(loads.get("MISSING").join().isNull());
+    }
+
+    @Test
+    void failingBatchOnlyFailsItsOwnSymbols() {
+        QuoteBatcher batcher = new QuoteBatcher(symbols -> symbols.contains("FAIL3")
+                ? CompletableFuture.failedFuture(new IllegalStateException("upstream"))
+                : CompletableFuture.completedFuture(Map.of()), 0, 1, Integer.MAX_VALUE);
+        Map<String, CompletableFuture<JsonNode>> loads = loads("FAIL3", "PETR4");
+
+        batcher.submit(loads);
+
+        assertThrows(CompletionException.class, () -> loads.get("FAIL3").join());
+        assertTrue(loads.get("PETR4").join().isNull());
+    }
+
+    @Test
+    void waitsForTheWindowBeforeLoading() throws Exception {
+        QuoteBatcher batcher = new QuoteBatcher(this::record, 50, 100, Integer.MAX_VALUE);
+        Map<String, CompletableFuture<JsonNode>> first = loads("PETR4");
+        Map<String, CompletableFuture<JsonNode>> second = loads("VALE3", "PETR4");
+
+        batcher.submit(first);
+        batcher.submit(second);
+        second.get("PETR4").get(5, java.util.concurrent.TimeUnit.SECONDS);
+
+        assertEquals(List.of(List.of("PETR4", "VALE3")), batches);
+    }
+}
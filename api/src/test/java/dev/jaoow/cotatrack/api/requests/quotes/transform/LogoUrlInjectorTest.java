@@ -0,0 +1,45 @@
+package dev.jaoow.cotatrack.api.requests.quotes.transform;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.jaoow.cotatrack.api.tradingview.LogoIdFetcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogoUrlInjectorTest {
+
+    private final LogoUrlInjector injector = new LogoUrlInjector();
+
+    @Test
+    void nodesWithAResolvedLogoAreComplete() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode()
+                .put("logoUrl", "https://s3-symbol-logo.tradingview.com/petrobras.svg");
+
+        assertTrue(injector.isComplete(node));
+    }
+
+    @Test
+    void nodesWithTheDefaultLogoAreIncomplete() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode().put("logoUrl", System.getProperty("defaultLogoUrl", ""));
+
+        assertFalse(injector.isComplete(node));
+    }
+
+    @Test
+    void transformUsesTheLogoIdsPreparedForTheNodes() {
+        LogoIdFetcher.putAll(Map.of("SAO:PETR4.SA", "brasileiro-petrobras"));
+        ObjectNode node = JsonNodeFactory.instance.objectNode().put("exchange", "SAO").put("symbol", "PETR4.SA");
+
+        injector.prepareAsync(List.of(node)).join();
+        injector.transform(node);
+
+        assertEquals("https://s3-symbol-logo.tradingview.com/brasileiro-petrobras.svg", node.get("logoUrl").asText());
+        assertTrue(injector.isComplete(node));
+    }
+}
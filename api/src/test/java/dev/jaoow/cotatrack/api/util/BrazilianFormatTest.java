@@ -0,0 +1,60 @@
+package dev.jaoow.cotatrack.api.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BrazilianFormatTest {
+
+    @Test
+    void parsesDecimalsWithACommaSeparator() {
+        assertEquals(new BigDecimal("1234.56"), BrazilianFormat.parseDecimal("1.234,56"));
+        assertEquals(new BigDecimal("0.5"), BrazilianFormat.parseDecimal(" 0,5 "));
+        assertEquals(new BigDecimal("1234.56"), BrazilianFormat.parseDecimal("1234.56"));
+        assertNull(BrazilianFormat.parseDecimal(" "));
+        assertThrows(NumberFormatException.class, () -> BrazilianFormat.parseDecimal("abc"));
+    }
+
+    @Test
+    void parsesBrazilianAndIsoDates() {
+        assertEquals(LocalDate.of(2023, 12, 29), BrazilianFormat.parseDate("29/12/2023"));
+        assertEquals(LocalDate.of(2023, 12, 29), BrazilianFormat.parseDate("2023-12-29"));
+        assertEquals(LocalDate.of(2023, 12, 29), BrazilianFormat.parseDate("29/12/2023 00:00:00"));
+        assertNull(BrazilianFormat.parseDate(null));
+        assertThrows(DateTimeParseException.class, () -> BrazilianFormat.parseDate("29-12-2023"));
+    }
+
+    static class Entry {
+        @JsonDeserialize(using = BrazilianFormat.DecimalDeserializer.class)
+        @JsonProperty
+        BigDecimal rate;
+
+        @JsonDeserialize(using = BrazilianFormat.DateDeserializer.class)
+        @JsonSerialize(using = BrazilianFormat.DateSerializer.class)
+        @JsonProperty
+        LocalDate date;
+    }
+
+    @Test
+    void readsInvalidValuesAsNullAndWritesIsoDates() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        Entry entry = objectMapper.readValue("{\"rate\":\"0,25\",\"date\":\"02/01/2024\"}", Entry.class);
+        assertEquals(new BigDecimal("0.25"), entry.rate);
+        assertEquals("{\"rate\":0.25,\"date\":\"2024-01-02\"}", objectMapper.writeValueAsString(entry));
+
+        Entry invalid = objectMapper.readValue("{\"rate\":\"n/a\",\"date\":\"soon\"}", Entry.class);
+        assertNull(invalid.rate);
+        assertNull(invalid.date);
+    }
+}
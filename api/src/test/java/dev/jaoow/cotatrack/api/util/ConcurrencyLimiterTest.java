@@ -0,0 +1,66 @@
+package dev.jaoow.cotatrack.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void queuesTasksBeyondTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        limiter.submit(() -> first);
+        limiter.submit(() -> second);
+        CompletableFuture<Integer> third = limiter.submit(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(3);
+        });
+
+        assertEquals(0, started.get());
+        first.complete(1);
+        assertEquals(1, started.get());
+        assertEquals(3, third.join());
+    }
+
+    @Test
+    void startsALongQueueOfSynchronousTasksWithoutRecursion() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        CompletableFuture<Integer> blocker = new CompletableFuture<>();
+        limiter.submit(() -> blocker);
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            int value = i;
+            results.add(limiter.submit(() -> CompletableFuture.completedFuture(value)));
+        }
+        assertFalse(results.get(0).isDone());
+
+        blocker.complete(-1);
+
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+        assertEquals(99_999, results.get(99_999).join());
+    }
+
+    @Test
+    void failedTasksReleaseTheirSlot() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+
+        CompletableFuture<Integer> failed = limiter.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(1, limiter.submit(() -> CompletableFuture.completedFuture(1)).join());
+    }
+}
@@ -1,6 +1,9 @@
 package dev.jaoow.cotatrack.rest.config;
 
+import dev.jaoow.cotatrack.api.requests.dividends.DividendsCrawler;
+import dev.jaoow.cotatrack.api.tradingview.LogoPreloader;
 import dev.jaoow.cotatrack.api.yahoo.YahooCredentials;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
@@ -8,10 +11,26 @@ import org.springframework.stereotype.Component;
 @Component
 public class ApplicationStartup {
 
+    @Value("${cotatrack.dividends.crawler.enabled:true}")
+    private boolean dividendsCrawlerEnabled;
+
+    @Value("${cotatrack.logos.preload.enabled:true}")
+    private boolean logoPreloadEnabled;
+
     @EventListener(ContextRefreshedEvent.class)
     public void onApplicationEvent() {
         YahooCredentials.fetch();
 
+        // Keep the dividends of the listed companies stored locally
+        if (dividendsCrawlerEnabled) {
+            DividendsCrawler.start();
+        }
+
+        // Load the stored logo ids and keep them refreshed in the background
+        if (logoPreloadEnabled) {
+            LogoPreloader.start();
+        }
+
         // Set the default logo url
         // TODO: Change this to a custom logo
         System.setProperty("defaultLogoUrl", "");
@@ -8,7 +8,10 @@ import dev.jaoow.cotatrack.api.requests.quotes.model.Quote;
 import dev.jaoow.cotatrack.rest.service.StockQueryService;
 import dev.jaoow.cotatrack.rest.service.StockSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -17,6 +20,8 @@ import java.time.LocalDate;
 @RequiredArgsConstructor
 public class StockQueryController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final StockQueryService stockQueryService;
     private final StockSearchService stockSearchService;
 
@@ -27,9 +32,30 @@ public class StockQueryController {
             @RequestParam(required = false) LocalDate to,
             @RequestParam(required = false) String interval,
             @RequestParam(required = false) String range,
-            @RequestParam(defaultValue = "false") boolean dividends
+            @RequestParam(defaultValue = "false") boolean dividends,
+            @RequestParam(defaultValue = "false") boolean dividendSummary,
+            @RequestParam(required = false) String indicators
+    ) {
+        return stockQueryService.fetchStockQuotes(symbols, from, to, interval, range, dividends, dividendSummary, indicators);
+    }
+
+    /**
+     * Streams the quotes as newline-delimited JSON, one quote per line, when requested with
+     * {@code Accept: application/x-ndjson}. Each quote is written as soon as its historical data is fetched.
+     */
+    @GetMapping(value = "/quote/{symbols}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamStockQuotes(
+            @PathVariable String symbols,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to,
+            @RequestParam(required = false) String interval,
+            @RequestParam(required = false) String range,
+            @RequestParam(defaultValue = "false") boolean dividends,
+            @RequestParam(defaultValue = "false") boolean dividendSummary,
+            @RequestParam(required = false) String indicators
     ) {
-        return stockQueryService.fetchStockQuotes(symbols, from, to, interval, range, dividends);
+        StreamingResponseBody body = stockQueryService.streamStockQuotes(symbols, from, to, interval, range, dividends, dividendSummary, indicators);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @GetMapping("/forex/{symbols}")
@@ -1,35 +1,63 @@
 package dev.jaoow.cotatrack.rest.service;
 
 import dev.jaoow.cotatrack.api.QuoteQuery;
+import dev.jaoow.cotatrack.api.indicator.IndicatorSpec;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Interval;
 import dev.jaoow.cotatrack.api.requests.historicalquotes.model.Range;
 import dev.jaoow.cotatrack.api.requests.quotes.model.FxQuote;
 import dev.jaoow.cotatrack.api.requests.quotes.model.Quote;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jaoow.cotatrack.rest.controller.ExceptionHandler;
 import dev.jaoow.cotatrack.rest.dto.QueryResponse;
 import dev.jaoow.cotatrack.rest.exception.BadRequestException;
 import dev.jaoow.cotatrack.rest.exception.FailedFetchException;
 import dev.jaoow.cotatrack.rest.exception.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class StockQueryService {
 
+    // Marks the end of the streamed quotes
+    private static final Delivery END_OF_STREAM = new Delivery(null, null);
+
+    private final ObjectMapper objectMapper;
+
+    // Quotes enriched or waiting to be written at a time, per streamed response
+    @Value("${cotatrack.stream.max-quotes-in-flight:8}")
+    private int maxQuotesInFlight;
+
     public QueryResponse<Quote> fetchStockQuotes(String symbols,
                                                  LocalDate from,
                                                  LocalDate to,
                                                  String interval,
                                                  String range,
-                                                 boolean includeDividends) {
+                                                 boolean includeDividends,
+                                                 boolean includeDividendSummary,
+                                                 String indicators) {
         LocalDateTime startTime = LocalDateTime.now();
 
-        QuoteQuery quoteQuery = buildStockQuoteQuery(symbols, from, to, interval, range, includeDividends);
+        QuoteQuery quoteQuery = buildStockQuoteQuery(symbols, from, to, interval, range, includeDividends, includeDividendSummary, indicators);
         Map<String, Quote> quotesMap = fetchQuotes(quoteQuery);
 
         List<Quote> quotes = List.copyOf(quotesMap.values());
@@ -38,6 +66,89 @@ public class StockQueryService {
         return new QueryResponse<>(quotes, elapsedTime);
     }
 
+    /**
+     * Streams the stock quotes as newline-delimited JSON, writing each quote with its historical data as soon as
+     * it's fetched. Only a bounded number of quotes are enriched or waiting to be written at a time, so the memory
+     * held doesn't grow with the number of symbols, and a slow client holds back the enrichments. The fetch is
+     * cancelled if the client goes away.
+     *
+     * @return the response body, writing one quote per line
+     */
+    public StreamingResponseBody streamStockQuotes(String symbols,
+                                                   LocalDate from,
+                                                   LocalDate to,
+                                                   String interval,
+                                                   String range,
+                                                   boolean includeDividends,
+                                                   boolean includeDividendSummary,
+                                                   String indicators) {
+        QuoteQuery quoteQuery = buildStockQuoteQuery(symbols, from, to, interval, range, includeDividends, includeDividendSummary, indicators);
+
+        // Holds at most the quotes in flight and the end of the stream, so adding never blocks the fetch
+        BlockingQueue<Delivery> deliveries = new ArrayBlockingQueue<>(maxQuotesInFlight + 1);
+        CompletableFuture<Void> fetch = quoteQuery.fetchEachAsync(quote -> {
+            Delivery delivery = new Delivery(quote, new CompletableFuture<>());
+            deliveries.add(delivery);
+            return delivery.written();
+        }, maxQuotesInFlight);
+        fetch.whenComplete((ignored, e) -> deliveries.add(END_OF_STREAM));
+
+        // Invalid parameters are reported before the response starts
+        if (fetch.isCompletedExceptionally()) {
+            try {
+                fetch.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IllegalArgumentException) {
+                    throw new BadRequestException(e.getCause().getMessage());
+                }
+            }
+        }
+
+        return outputStream -> writeQuotes(deliveries, fetch, outputStream);
+    }
+
+    private void writeQuotes(BlockingQueue<Delivery> deliveries, CompletableFuture<Void> fetch, OutputStream outputStream) throws IOException {
+        // Quotes are only written from this thread, the one of the response
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+            int written = 0;
+            for (Delivery delivery = deliveries.take(); delivery != END_OF_STREAM; delivery = deliveries.take()) {
+                writeLine(generator, delivery.quote());
+                // Lets the next quote be enriched
+                delivery.written().complete(null);
+                written++;
+            }
+
+            if (fetch.isCompletedExceptionally()) {
+                log.error("Failed to stream quotes", fetch.handle((ignored, e) -> e).join());
+                writeLine(generator, new ExceptionHandler.ErrorResponse(true, "Failed to fetch quotes. Please try again later."));
+            } else if (written == 0) {
+                writeLine(generator, new ExceptionHandler.ErrorResponse(true, "No quotes found for the given symbols."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Stops fetching the remaining quotes when the client went away or the response timed out
+            fetch.cancel(false);
+        }
+    }
+
+    /**
+     * Quote handed over to the thread writing the response.
+     *
+     * @param quote   the quote
+     * @param written completed once the quote is written
+     */
+    private record Delivery(Quote quote, CompletableFuture<Void> written) {
+    }
+
+    private void writeLine(JsonGenerator generator, Object value) throws IOException {
+        objectMapper.writeValue(generator, value);
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
     public QueryResponse<FxQuote> fetchFxQuotes(String symbols) {
         LocalDateTime startTime = LocalDateTime.now();
 
@@ -55,15 +166,19 @@ public class StockQueryService {
                                             LocalDate to,
                                             String interval,
                                             String range,
-                                            boolean includeDividends) {
+                                            boolean includeDividends,
+                                            boolean includeDividendSummary,
+                                            String indicators) {
         QuoteQuery.QuoteQueryBuilder queryBuilder = QuoteQuery.builder()
                 .symbols(symbols.split(","))
                 .from(from)
                 .to(to)
-                .includeDividends(includeDividends);
+                .includeDividends(includeDividends)
+                .includeDividendSummary(includeDividendSummary);
 
         setInterval(queryBuilder, interval);
         setRange(queryBuilder, range);
+        setIndicators(queryBuilder, indicators);
 
         return queryBuilder.build();
     }
@@ -94,6 +209,22 @@ public class StockQueryService {
         }
     }
 
+    private void setIndicators(QuoteQuery.QuoteQueryBuilder queryBuilder, String indicators) {
+        if (indicators != null) {
+            List<IndicatorSpec> specs = new ArrayList<>();
+            for (String indicator : indicators.split(",")) {
+                try {
+                    specs.add(IndicatorSpec.parse(indicator));
+                } catch (IllegalArgumentException e) {
+                    throw new BadRequestException(e.getMessage());
+                }
+            }
+
+            // Only the indicators are returned, not the bars they're computed from
+            queryBuilder.indicators(specs).includeHistoricalQuotes(false);
+        }
+    }
+
     private Map<String, Quote> fetchQuotes(QuoteQuery quoteQuery) {
         try {
             Map<String, Quote> quotesMap = quoteQuery.fetchMultiple();
@@ -101,6 +232,8 @@ public class StockQueryService {
                 throw new NotFoundException("No quotes found for the given symbols.");
             }
             return quotesMap;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
         } catch (IOException e) {
             throw new FailedFetchException("Failed to fetch quotes. Please try again later.");
         }
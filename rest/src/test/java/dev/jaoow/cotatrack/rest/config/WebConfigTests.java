@@ -0,0 +1,69 @@
+package dev.jaoow.cotatrack.rest.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.jaoow.cotatrack.api.requests.quotes.model.Quote;
+import dev.jaoow.cotatrack.rest.dto.QueryResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(WebConfigTests.SampleController.class)
+class WebConfigTests {
+
+    private static final QueryResponse<Quote> RESPONSE = new QueryResponse<>(List.of(Quote.builder()
+            .symbol("PETR4.SA")
+            .regularMarketPrice(38.5)
+            .regularMarketTime(new Date(1_717_000_000_000L))
+            .build()), 12);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @RestController
+    static class SampleController {
+
+        @GetMapping("/test/sample")
+        QueryResponse<Quote> sample() {
+            return RESPONSE;
+        }
+    }
+
+    private byte[] fetch(String mediaType) throws Exception {
+        return mockMvc.perform(get("/test/sample").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Test
+    void smileAndCborResponsesMatchTheJsonResponse() throws Exception {
+        JsonNode json = new ObjectMapper().readTree(fetch("application/json"));
+        JsonNode smile = new ObjectMapper(new SmileFactory()).readTree(fetch("application/x-jackson-smile"));
+        JsonNode cbor = new ObjectMapper(new CBORFactory()).readTree(fetch("application/cbor"));
+
+        // Dates are written as ISO-8601 text in every format
+        assertTrue(json.get("requestedAt").isTextual());
+        assertTrue(json.at("/results/0/regularMarketTime").isTextual());
+        assertEquals(json, smile);
+        assertEquals(json, cbor);
+    }
+}